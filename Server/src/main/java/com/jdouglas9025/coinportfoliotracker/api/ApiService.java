@@ -6,34 +6,85 @@ import com.jdouglas9025.coinportfoliotracker.entity.globaldata.GlobalDataEntity;
 import com.jdouglas9025.coinportfoliotracker.entity.globaldata.containers.GlobalDataContainer;
 import com.jdouglas9025.coinportfoliotracker.entity.globaldata.containers.RawGlobalData;
 import com.jdouglas9025.coinportfoliotracker.entity.market.CoinEntity;
+import com.jdouglas9025.coinportfoliotracker.entity.market.CoinSearchEntity;
+import com.jdouglas9025.coinportfoliotracker.entity.market.MarketDeltaEntity;
 import com.jdouglas9025.coinportfoliotracker.entity.metadata.MetadataEntity;
 import com.jdouglas9025.coinportfoliotracker.entity.metadata.containers.MetadataContainer;
 import com.jdouglas9025.coinportfoliotracker.entity.news.NewsEntity;
 import com.jdouglas9025.coinportfoliotracker.entity.news.containers.RawNewsEntity;
 import com.jdouglas9025.coinportfoliotracker.entity.trending.TrendingEntity;
 import com.jdouglas9025.coinportfoliotracker.entity.trending.containers.*;
+import com.jdouglas9025.coinportfoliotracker.history.PriceHistoryStore;
+import com.jdouglas9025.coinportfoliotracker.market.CoinSearchIndex;
+import com.jdouglas9025.coinportfoliotracker.market.MarketColumnStore;
+import com.jdouglas9025.coinportfoliotracker.market.MarketDeltaRing;
+import com.jdouglas9025.coinportfoliotracker.market.MarketIndex;
+import com.jdouglas9025.coinportfoliotracker.market.MarketSnapshot;
+import com.jdouglas9025.coinportfoliotracker.metadata.MetadataCheckpoint;
+import com.jdouglas9025.coinportfoliotracker.news.ArticleMetadataCache;
+import com.jdouglas9025.coinportfoliotracker.news.CoinMentionLinker;
+import com.jdouglas9025.coinportfoliotracker.news.GoogleNewsSource;
+import com.jdouglas9025.coinportfoliotracker.news.NewsClusterIndex;
+import com.jdouglas9025.coinportfoliotracker.news.NewsIndex;
+import com.jdouglas9025.coinportfoliotracker.news.NewsIngestor;
+import com.jdouglas9025.coinportfoliotracker.news.NewsSnapshot;
+import com.jdouglas9025.coinportfoliotracker.news.NewsSource;
+import com.jdouglas9025.coinportfoliotracker.recommendation.RecommendationEngine;
+import com.jdouglas9025.coinportfoliotracker.scheduler.AdaptiveRefreshPlanner;
+import com.jdouglas9025.coinportfoliotracker.scheduler.ApiCallBudget;
+import com.jdouglas9025.coinportfoliotracker.scheduler.DemandTracker;
+import com.jdouglas9025.coinportfoliotracker.scheduler.RefreshScheduler;
+import com.jdouglas9025.coinportfoliotracker.scheduler.RefreshTask;
+import com.jdouglas9025.coinportfoliotracker.scheduler.TokenBucket;
+import com.jdouglas9025.coinportfoliotracker.snapshot.DatasetSnapshot;
+import com.jdouglas9025.coinportfoliotracker.snapshot.DurableFiles;
+import com.jdouglas9025.coinportfoliotracker.snapshot.ResponseSnapshot;
+import com.jdouglas9025.coinportfoliotracker.snapshot.SnapshotEncoder;
+import com.jdouglas9025.coinportfoliotracker.snapshot.SnapshotStore;
+import com.jdouglas9025.coinportfoliotracker.startup.StartupTracker;
+import com.jdouglas9025.coinportfoliotracker.stream.UpdateStream;
+import com.jdouglas9025.coinportfoliotracker.upstream.CircuitBreaker;
+import com.jdouglas9025.coinportfoliotracker.upstream.EndpointPolicy;
+import com.jdouglas9025.coinportfoliotracker.upstream.ResponseCache;
+import com.jdouglas9025.coinportfoliotracker.upstream.UpstreamClient;
+import com.jdouglas9025.coinportfoliotracker.upstream.UpstreamResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.scheduling.annotation.Schedules;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.net.URI;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 public class ApiService {
@@ -43,395 +94,1018 @@ public class ApiService {
     // Output all dates as a consistent format
     private final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS");
 
-    // Intervals for scheduled price and global data updates:
-    // Active - Every 23 minutes between 8AM and 9:59PM EST
-    private final String every23MinutesFor14Hours = "0 */23 8-21 * * *";
-    // Inactive - Every 30 minutes between 10PM and 7:59AM EST
-    private final String every30MinutesFor10Hours = "0 */30 22-23,0-7 * * *";
+    // Interval for checking whether price and global data are due for a refresh:
+    // Every minute (how often they are refreshed depends on client demand and the API calls left this month)
+    private final String everyMinute = "60000";
 
     // Interval for scheduled trending coins updates:
     // Every 6 hours (4 times a day)
     private final String every6Hours = "21600000";
 
-    // Interval for refreshing coin metadata:
-    // On the first of each month at 3AM EST
-    private final String atFirstOfMonth = "0 0 3 1 * *";
+    // Interval for checking for coin metadata to refresh:
+    // Every 10 minutes (each run only fetches coins that are new or have metadata older than 30 days)
+    private final String every10Minutes = "600000";
 
     // Interval for refreshing news article headlines
     // Every 60 minutes (24 times a day)
     private final String every60Minutes = "3600000";
 
+    // Market data is fetched as 4 pages of 250 coins, 2 pages at a time
+    private final int marketPageCount = 4;
+    private final int marketPageSize = 250;
+    private final int marketPageConcurrency = 2;
+    // Each page is tried up to 3 times (backing off from 2s), and a page with no response after 10s is hedged with a second call
+    private final EndpointPolicy marketPagePolicy = new EndpointPolicy(Duration.ofSeconds(30), 3, Duration.ofSeconds(2),
+            Duration.ofSeconds(60), Duration.ofSeconds(10), true);
+
+    // Sparkline resolutions precomputed on each market data refresh (0 = no sparklines, e.g., for list rows)
+    private final int[] sparklineResolutions = {0, 24, 48, 96};
+
     private final HttpClient client = HttpClient.newBuilder()
             .version(HttpClient.Version.HTTP_2)
             .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(10))
             .build();
 
     private final Gson gson = new Gson();
-    private final String baseUrl = "https://api.coingecko.com/api/v3";
+    // Parses upstream responses and files on disk without buffering them into Strings
+    private final StreamingJsonParser jsonParser = new StreamingJsonParser(gson);
     private final String authHeader = "x-cg-demo-api-key";
 
+    // Every CoinGecko call goes through this client (set up in the constructor once the call budget is open), so each call is
+    // metered, bounded by its endpoint's timeout, and retried the same way
+    private final UpstreamClient coinGeckoClient;
+    // After 5 failed calls in a row, CoinGecko is left alone for 2 minutes (refreshes in that time fail fast and keep their data)
+    private final int circuitBreakerThreshold = 5;
+    private final Duration circuitBreakerOpenDuration = Duration.ofMinutes(2);
+    // Global data and trending coins are small and retried quickly
+    private final EndpointPolicy globalDataPolicy = new EndpointPolicy(Duration.ofSeconds(10), 3, Duration.ofSeconds(1),
+            Duration.ofSeconds(30), null, true);
+    private final EndpointPolicy trendingCoinsPolicy = new EndpointPolicy(Duration.ofSeconds(10), 3, Duration.ofSeconds(1),
+            Duration.ofSeconds(30), null, true);
+    // Metadata calls are not retried or cached -- they are paced by the rate limiter, a failed coin is retried after 6 hours,
+    // and a 429 pauses the rate limiter
+    private final EndpointPolicy metadataPolicy = new EndpointPolicy(Duration.ofSeconds(15), 1, Duration.ofSeconds(1),
+            Duration.ZERO, null, false);
+
     private final String baseFilePath = ""; // Update to base path on current machine
-    private final String googleNewsScriptFilePath = baseFilePath + "/googleNewsScraper.py";
-    private final String recommendationScriptFilePath = baseFilePath + "/recommendationSystem.py";
     private final String metadataEntitiesFilePath = baseFilePath + "/metadata/metaDataEntities.txt";
-    private final String descriptionsFilePath = baseFilePath + "/metadata/descriptions.csv";
-    private final String recommendationsFilePath = baseFilePath + "/metadata/recommendations.txt";
-    private final String newsFeedFilePath = baseFilePath + "/news/newsFeed.txt";
-
-    @Value("${custom.coinGecko.apiKey}")
-    private String apiKey;
-
-    // All coins from market data API call
-    private List<CoinEntity> allCoins;
-    private String allCoinsLastUpdated;
+    private final String metadataCheckpointFilePath = baseFilePath + "/metadata/checkpoint.json";
+    private final String articleCacheFilePath = baseFilePath + "/news/articleCache.json";
+    private final String priceHistoryDirectoryPath = baseFilePath + "/history";
+    private final String snapshotDirectoryPath = baseFilePath + "/snapshots";
+    private final String apiCallBudgetFilePath = baseFilePath + "/budget/coinGeckoCalls.json";
+    // Cached CoinGecko responses (market pages, global data, and trending coins -- about 3MB)
+    private final String responseCacheDirectoryPath = baseFilePath + "/upstreamCache";
+    private final long responseCacheMaxBytes = 16 * 1024 * 1024;
+
+    // Encodes each dataset into a pre-serialized snapshot upon refresh
+    private final SnapshotEncoder snapshotEncoder;
+
+    // Saves each published dataset (under its job name) so a restart serves the last known data right away
+    private final SnapshotStore snapshotStore = new SnapshotStore(Path.of(snapshotDirectoryPath));
+    private final Type coinListType = new TypeToken<List<CoinEntity>>() {
+    }.getType();
+    private final Type trendingListType = new TypeToken<List<TrendingEntity>>() {
+    }.getType();
+    private final Type newsListType = new TypeToken<List<NewsEntity>>() {
+    }.getType();
+
+    // Runs each refresh job on a virtual thread (one run per job at a time)
+    private final RefreshScheduler refreshScheduler;
+
+    // Pushes each published refresh to clients connected to the update stream
+    private final UpdateStream updateStream;
+
+    // CoinGecko calls spent this month against the key's monthly quota (every call to CoinGecko is recorded)
+    private final ApiCallBudget apiCallBudget;
+    // Decides when price and global data are refreshed from their demand and the calls left this month
+    private final AdaptiveRefreshPlanner refreshPlanner;
+    // Calls per month set aside for metadata (~1000 plus new coins), trending coins (~124), and their retries
+    // Metadata and trending coins may spend the reserve (each call only needs its policy's worst case left), while price and
+    // global refreshes never start unless their worst case (every page retried and hedged) fits without touching it
+    private final int reservedMonthlyCalls = 1500;
+    // Active datasets (1+ request per minute) refresh at twice the even pace, idle datasets (< 1 request per 10 minutes)
+    // at a third of it, never more often than every 5 minutes and, while the budget allows, at least hourly
+    private final Duration minRefreshInterval = Duration.ofMinutes(5);
+    private final Duration maxRefreshInterval = Duration.ofMinutes(60);
+    private final double activeDemand = 1;
+    private final double idleDemand = 0.1;
+    private final double activeFactor = 0.5;
+    private final double idleFactor = 3;
+
+    // Requests per minute for each dataset (recorded by the controller)
+    private final DemandTracker demandTracker;
+
+    // Times each startup step and reports readiness once the core datasets are live
+    private final StartupTracker startupTracker;
+    // Startup step for loading metadata from disk and building recommendations (the refresh jobs are steps under their job names)
+    private final String metadataLoadStep = "metadataLoad";
+    // Startup refreshes that fail are retried at this interval until they publish (rather than waiting for the next scheduled tick)
+    private final Duration startupRetryDelay = Duration.ofSeconds(30);
+    // Completed once metadata has been loaded from disk -- metadata refreshes wait for it, market refreshes wait up to 10s
+    private final CompletableFuture<Void> metadataLoaded = new CompletableFuture<>();
+    private final Duration metadataLoadWait = Duration.ofSeconds(10);
+
+    // Refresh job names and the maximum time each run may take
+    private final String allCoinsJob = "allCoins";
+    private final String globalDataJob = "globalData";
+    private final String trendingCoinsJob = "trendingCoins";
+    private final String metadataJob = "metadata";
+    private final String newsJob = "news";
+    // Each lane fetches its pages one after another, so a run may take every page's worst case in turn (8 minutes)
+    private final Duration allCoinsJobTimeout = marketPagePolicy.getMaxDuration()
+            .multipliedBy((marketPageCount + marketPageConcurrency - 1) / marketPageConcurrency)
+            .plus(Duration.ofMinutes(1));
+    private final Duration globalDataJobTimeout = Duration.ofMinutes(2);
+    private final Duration trendingCoinsJobTimeout = Duration.ofMinutes(2);
+    // A full refresh of all 1000 coins takes about 50 minutes of paced calls (a timed out run resumes on the next tick)
+    private final Duration metadataJobTimeout = Duration.ofHours(3);
+    // Sources and article pages are fetched concurrently, so a run normally takes seconds
+    private final Duration newsJobTimeout = Duration.ofMinutes(5);
+
+    // News searches (at most 150 articles in total), fetched from Google News RSS
+    private final String googleNewsBaseUrl = "https://news.google.com/rss/search";
+    private final Set<String> excludedNewsWebsites = Set.of("coin-turk.com", "zacks.com", "forbes.com", "themissouritimes.com");
+    private final List<NewsSource> newsSources = List.of(
+            new GoogleNewsSource(googleNewsBaseUrl, "Bitcoin", 20, excludedNewsWebsites),
+            new GoogleNewsSource(googleNewsBaseUrl, "Ethereum", 20, excludedNewsWebsites),
+            new GoogleNewsSource(googleNewsBaseUrl, "Solana Coin", 20, excludedNewsWebsites),
+            new GoogleNewsSource(googleNewsBaseUrl, "Dogecoin", 20, excludedNewsWebsites),
+            new GoogleNewsSource(googleNewsBaseUrl, "Altcoin", 20, excludedNewsWebsites),
+            new GoogleNewsSource(googleNewsBaseUrl, "Coinbase", 10, excludedNewsWebsites),
+            new GoogleNewsSource(googleNewsBaseUrl, "Binance", 10, excludedNewsWebsites),
+            new GoogleNewsSource(googleNewsBaseUrl, "Uniswap", 10, excludedNewsWebsites),
+            new GoogleNewsSource(googleNewsBaseUrl, "Cryptocurrency", 5, excludedNewsWebsites),
+            new GoogleNewsSource(googleNewsBaseUrl, "Blockchain", 5, excludedNewsWebsites),
+            new GoogleNewsSource(googleNewsBaseUrl, "DeFi", 5, excludedNewsWebsites),
+            new GoogleNewsSource(googleNewsBaseUrl, "NFT", 5, excludedNewsWebsites)
+    );
+    // Article pages fetched at once per host, and how long a page's header image is remembered
+    private final int newsHostConcurrency = 2;
+    private final Duration articleCacheTtl = Duration.ofDays(14);
+
+    // Groups near-duplicate articles into stories, remembering articles for 8 days so each run only hashes new ones
+    private final NewsClusterIndex newsClusterIndex = new NewsClusterIndex(Duration.ofDays(8).toMillis());
+
+    // Collects articles from the news sources (set up in the constructor once the article cache is loaded)
+    private final NewsIngestor newsIngestor;
+
+    // Metadata calls are paced at 20 per minute, leaving room under the 30 calls per minute limit for the other refresh jobs
+    private final TokenBucket metadataRateLimiter = new TokenBucket(20, Duration.ofMinutes(1));
+    // Fetched metadata is published and checkpointed after each batch (about 1 minute of calls)
+    private final int metadataBatchSize = 20;
+    // The metadata file is rewritten and recommendations rebuilt every 10 batches and once at the end of each run, rather than
+    // after every batch (a full pass is ~50 batches)
+    private final int metadataPersistBatches = 10;
+    // Metadata is refetched monthly, and a coin whose fetch failed is retried after 6 hours
+    private final Duration metadataMaxAge = Duration.ofDays(30);
+    private final Duration metadataRetryInterval = Duration.ofHours(6);
+    // Time to wait after a 429 response without a Retry-After header, or while the circuit breaker is open
+    private final Duration metadataThrottleDelay = Duration.ofMinutes(1);
+
+    // Which coins' metadata is fetched next (set up in the constructor once the metadata map is loaded)
+    private final MetadataCheckpoint metadataCheckpoint;
+
+    // All coins from market data API call, with the encoded responses, deltas, and indexes built from them
+    // Each dataset is published as one immutable snapshot with a single reference swap, so readers never see a partial refresh
+    private final AtomicReference<MarketSnapshot> marketSnapshot = new AtomicReference<>();
+
+    // Recent market data versions (about 4.5 hours at the active interval) for serving deltas to clients
+    private final MarketDeltaRing marketDeltaRing = new MarketDeltaRing(12);
 
     // Global data (e.g., total market cap)
-    private GlobalDataEntity globalData;
-    private String globalDataLastUpdated;
+    private final AtomicReference<DatasetSnapshot<GlobalDataEntity>> globalDataSnapshot = new AtomicReference<>();
 
     // Trending coins
-    private List<TrendingEntity> trendingCoins;
-    private String trendingCoinsLastUpdated;
+    private final AtomicReference<DatasetSnapshot<List<TrendingEntity>>> trendingCoinsSnapshot = new AtomicReference<>();
+
+    // Price history of every market data refresh (null if the history files could not be opened)
+    private PriceHistoryStore priceHistoryStore;
+
+    // Coins from each page of the last market data refresh with when each was fetched (used to fill in pages that fail
+    // on the next refresh) -- set by the restore thread on boot, then by refresh runs
+    private volatile List<FetchedMarketPage> lastMarketPages;
 
     // Map of metadata (key: coinId) for with metadata for each coin
-    private Map<String, MetadataEntity> metadata;
+    private volatile Map<String, MetadataEntity> metadata;
 
     // Collection of news headlines from Google News
-    private List<NewsEntity> news;
-    private String newsLastUpdated;
+    private final AtomicReference<NewsSnapshot> newsSnapshot = new AtomicReference<>();
+
+    // All four datasets combined into one response for app launches
+    // Rebuilt whenever one of the datasets is published
+    private final AtomicReference<ResponseSnapshot> bootstrapSnapshot = new AtomicReference<>();
 
     // Map of coin to recommended coins (key: coinId to get recommendations for, value: array of coin ids)
-    private Map<String, String[]> recommendedCoins;
+    private volatile Map<String, String[]> recommendedCoins;
+
+    // Finds similar coins from their metadata descriptions (only changed descriptions are re-indexed on each refresh)
+    private final RecommendationEngine recommendationEngine = new RecommendationEngine();
+    private final int recommendationCount = 5;
+
+    // Sets up empty snapshots and opens the small on-disk stores -- datasets are loaded in the background once the server is up
+    @Autowired
+    public ApiService(SnapshotEncoder snapshotEncoder, RefreshScheduler refreshScheduler, UpdateStream updateStream, StartupTracker startupTracker,
+                      DemandTracker demandTracker, @Value("${custom.coinGecko.apiKey}") String apiKey,
+                      @Value("${custom.coinGecko.baseUrl:https://api.coingecko.com/api/v3}") String coinGeckoBaseUrl,
+                      @Value("${custom.coinGecko.monthlyCallBudget:10000}") int monthlyCallBudget) {
+        this.snapshotEncoder = snapshotEncoder;
+        this.refreshScheduler = refreshScheduler;
+        this.updateStream = updateStream;
+        this.startupTracker = startupTracker;
+        this.demandTracker = demandTracker;
+
+        // Resume counting this month's calls from where the last run left off
+        apiCallBudget = ApiCallBudget.open(Path.of(apiCallBudgetFilePath), monthlyCallBudget);
+        coinGeckoClient = new UpstreamClient(client, coinGeckoBaseUrl, Map.of(authHeader, apiKey),
+                new CircuitBreaker(circuitBreakerThreshold, circuitBreakerOpenDuration),
+                ResponseCache.open(Path.of(responseCacheDirectoryPath), responseCacheMaxBytes), apiCallBudget);
+        refreshPlanner = new AdaptiveRefreshPlanner(apiCallBudget, reservedMonthlyCalls, minRefreshInterval, maxRefreshInterval,
+                activeDemand, idleDemand, activeFactor, idleFactor);
+        refreshPlanner.register(allCoinsJob, marketPageCount, marketPageCount * marketPagePolicy.getMaxCalls());
+        refreshPlanner.register(globalDataJob, 1, globalDataPolicy.getMaxCalls());
+
+        // The server is ready to serve traffic once market and global data are live (trending coins and news are optional)
+        startupTracker.require(allCoinsJob);
+        startupTracker.require(globalDataJob);
+
+        refreshScheduler.register(allCoinsJob, allCoinsJobTimeout);
+        refreshScheduler.register(globalDataJob, globalDataJobTimeout);
+        refreshScheduler.register(trendingCoinsJob, trendingCoinsJobTimeout);
+        refreshScheduler.register(metadataJob, metadataJobTimeout);
+        refreshScheduler.register(newsJob, newsJobTimeout);
+
+        // Serve empty responses until the first refresh of each dataset
+        ResponseSnapshot emptyResponse = snapshotEncoder.encode(null, null, null);
+        marketSnapshot.set(MarketSnapshot.empty(emptyResponse));
+        globalDataSnapshot.set(new DatasetSnapshot<>(null, null, emptyResponse));
+        trendingCoinsSnapshot.set(new DatasetSnapshot<>(null, null, emptyResponse));
+        newsSnapshot.set(NewsSnapshot.empty(emptyResponse));
+        rebuildBootstrap();
+
+        // Load header images of articles seen on earlier runs
+        ArticleMetadataCache articleCache = ArticleMetadataCache.open(Path.of(articleCacheFilePath), articleCacheTtl);
+        newsIngestor = new NewsIngestor(client, newsSources, articleCache, newsHostConcurrency);
+
+        // Open price history (only the index is loaded -- the samples stay on disk)
+        try {
+            priceHistoryStore = PriceHistoryStore.open(Path.of(priceHistoryDirectoryPath));
+        } catch (IOException ignored) {
+        }
+
+        // Resume the metadata refresh from the last checkpoint
+        metadataCheckpoint = MetadataCheckpoint.open(Path.of(metadataCheckpointFilePath), metadataMaxAge, metadataRetryInterval);
+    }
+
+    // Loads metadata and restores or fetches every dataset in parallel once Spring has started, rather than in the constructor
+    // Market and global data are otherwise only fetched on their schedules (up to 30 minutes after boot)
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackgroundLoading() {
+        startupTracker.complete("context");
+
+        Thread.ofVirtual().name("startup-metadata").start(this::loadMetadata);
+
+        // Market and global data are refreshed by the planner, so fresh saved data is refreshed once its interval has passed
+        this.<List<CoinEntity>>restoreThenRefresh(allCoinsJob, coinListType, this::restoreMarketData, nextRefresh -> this::refreshAllCoins, null);
+        this.<GlobalDataEntity>restoreThenRefresh(globalDataJob, GlobalDataEntity.class, saved -> {
+            refreshPlanner.recordRefresh(globalDataJob, saved.getSavedAt());
+            publishGlobalData(saved.getData(), saved.getLastUpdated(), getPlannedRefresh(globalDataJob), true);
+        }, nextRefresh -> this::refreshGlobalData, null);
+
+        // Trending coins and news are on fixed rate schedules that start one interval after boot, so fresh saved data is
+        // refreshed when it was due instead
+        this.<List<TrendingEntity>>restoreThenRefresh(trendingCoinsJob, trendingListType,
+                saved -> publishTrendingCoins(saved.getData(), saved.getLastUpdated(), saved.getNextRefresh(), true),
+                nextRefresh -> () -> refreshTrendingCoins(nextRefresh), every6Hours);
+        this.<List<NewsEntity>>restoreThenRefresh(newsJob, newsListType,
+                saved -> publishNews(saved.getData(), saved.getLastUpdated(), saved.getNextRefresh(), true),
+                nextRefresh -> () -> refreshNewsFeed(nextRefresh), every60Minutes);
+    }
+
+    // Publishes the dataset saved before the last shutdown (if any) on a startup thread, then refreshes it from upstream
+    // unless the saved data is still fresh -- in that case a job with a fixed rate schedule ('interval', else null) is
+    // refreshed when the saved data was due
+    // 'refresh' builds the refresh task given the time of the refresh after it (unused by jobs on a cron schedule)
+    private <T> void restoreThenRefresh(String job, Type type, Consumer<SnapshotStore.PersistedSnapshot<T>> restore,
+                                        Function<Instant, RefreshTask> refresh, String interval) {
+        Thread.ofVirtual().name("startup-" + job).start(() -> {
+            SnapshotStore.PersistedSnapshot<T> saved = snapshotStore.load(job, type);
+
+            if (saved != null && !refreshScheduler.hasPublished(job)) {
+                try {
+                    restore.accept(saved);
+                } catch (RuntimeException ignored) {
+                    // Unusable saved data (e.g., from an older version of an entity) -- fetch it instead
+                    saved = null;
+                }
+            }
+
+            long intervalMillis = interval == null ? 0 : Long.parseLong(interval);
+
+            if (saved == null || !saved.isFresh()) {
+                startRefresh(job, refresh.apply(Instant.now().plusMillis(intervalMillis)));
+            } else if (interval != null) {
+                Instant nextRefresh = saved.getNextRefresh();
+
+                refreshScheduler.submitLater(job, refresh.apply(nextRefresh.plusMillis(intervalMillis)), Duration.between(Instant.now(), nextRefresh));
+            }
+        });
+    }
+
+    // Restored coins already have their metadata and recommendations from when they were saved
+    private void restoreMarketData(SnapshotStore.PersistedSnapshot<List<CoinEntity>> saved) {
+        List<CoinEntity> coins = saved.getData();
+
+        // Pages that fail on the first refresh are filled in from the restored coins
+        List<FetchedMarketPage> pages = new ArrayList<>();
+        for (int i = 0; i < coins.size(); i += marketPageSize) {
+            pages.add(new FetchedMarketPage(new MarketColumnStore(coins.subList(i, Math.min(i + marketPageSize, coins.size()))),
+                    saved.getLastUpdated()));
+        }
+
+        lastMarketPages = pages;
+
+        refreshPlanner.recordRefresh(allCoinsJob, saved.getSavedAt());
+        publishMarketData(coins, saved.getLastUpdated(), getPlannedRefresh(allCoinsJob), true);
+    }
+
+    // Writes a published dataset to disk (after publishing, so a slow disk never delays new data)
+    private void saveSnapshot(String job, String lastUpdated, Instant nextRefresh, Object data) {
+        try {
+            snapshotStore.save(job, lastUpdated, nextRefresh, data);
+        } catch (IOException ignored) {
+        }
+    }
+
+    // Runs a dataset's first refresh now -- if a scheduled run already started (e.g., fixed rate jobs start with the scheduler),
+    // the startup run checks back after the retry delay in case that run fails
+    private void startRefresh(String job, RefreshTask task) {
+        RefreshTask startupTask = refreshUntilPublished(job, task);
+
+        if (!refreshScheduler.submit(job, startupTask)) {
+            refreshScheduler.submitLater(job, startupTask, startupRetryDelay);
+        }
+    }
 
-    // Executes initial methods upon boot to load data in memory from disk
-    public ApiService() {
-        // Load metadata map into memory
-        getMetadataMapFromDisk();
+    // Wraps a dataset's first refresh so it is retried every 30 seconds until it publishes
+    // Stops once the dataset has been refreshed (e.g., a scheduled tick published it first)
+    private RefreshTask refreshUntilPublished(String job, RefreshTask task) {
+        return () -> {
+            if (refreshScheduler.hasPublished(job)) {
+                return false;
+            }
+
+            boolean published = false;
+
+            try {
+                published = task.run();
+
+                return published;
+            } finally {
+                if (!published && !refreshScheduler.hasPublished(job)) {
+                    refreshScheduler.submitLater(job, refreshUntilPublished(job, task), startupRetryDelay);
+                }
+            }
+        };
+    }
+
+    // Executed on a startup thread rather than the constructor
+    private void loadMetadata() {
+        try {
+            // Load metadata map into memory
+            getMetadataMapFromDisk();
+            addMissingMetadataCheckpoints();
+
+            // Build recommended coins from the loaded metadata
+            updateRecommendedCoins();
+        } catch (Exception ignored) {
+        } finally {
+            metadataLoaded.complete(null);
+            startupTracker.complete(metadataLoadStep);
+        }
+    }
+
+    // Waits for metadata to be loaded from disk (up to the given time) -- returns immediately after startup
+    private void awaitMetadataLoad(Duration timeout) throws InterruptedException {
+        try {
+            metadataLoaded.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException ignored) {
+        }
+    }
 
-        // Load recommended coins into memory
-        getRecommendedCoins();
+    // Starts refreshes of price and global data once they are due
+    // Each is due after an interval based on its current demand (stream clients count as active demand for both) and the calls
+    // left this month -- with a 10,000 call quota, about every 25 minutes at an even pace, every 12.5 minutes while clients
+    // are active, and hourly while idle
+    @Scheduled(fixedDelayString = everyMinute, initialDelayString = everyMinute)
+    public void refreshDueDatasets() {
+        if (refreshPlanner.isDue(allCoinsJob, getDemand(allCoinsJob))) {
+            updateAllCoins();
+        }
+
+        if (refreshPlanner.isDue(globalDataJob, getDemand(globalDataJob))) {
+            updateGlobalData();
+        }
+
+        try {
+            apiCallBudget.save();
+        } catch (IOException ignored) {
+        }
     }
 
     // Updates price data for the top 1000 cryptos by making 4x API calls to the CoinGecko API
     // Also pulls in latest metadata/recommendations if available
-    // Busy period calls: 4,532 | Off period calls: 2,480
-    @Schedules({@Scheduled(cron = every23MinutesFor14Hours, zone = timezone), @Scheduled(cron = every30MinutesFor10Hours, zone = timezone)})
     public void updateAllCoins() {
-        Runnable task = () -> {
-            // New list to hold results and times before execution
-            List<CoinEntity> result = new ArrayList<>();
-            LocalDateTime currentTime = LocalDateTime.now(ZoneId.of(timezone));
-            String sparklineLastUpdated = getLastUpdateTimeForSparkline();
+        refreshScheduler.submit(allCoinsJob, this::refreshAllCoins);
+    }
 
-            // Get top 1000 coins (page 1,2,3,4)
-            for (int i = 1; i <= 4; i++) {
-                String endpoint = "/coins/markets?vs_currency=usd&order=market_cap_desc&per_page=250&page="
-                        + i + "&sparkline=true&price_change_percentage=7d%2C14d%2C30d%2C1y&locale=en&precision=full";
+    private boolean refreshAllCoins() throws InterruptedException {
+        refreshPlanner.recordRefresh(allCoinsJob, Instant.now());
 
-                try {
-                    HttpRequest request = HttpRequest.newBuilder()
-                            .GET()
-                            .uri(URI.create(baseUrl + endpoint))
-                            .setHeader(authHeader, apiKey)
-                            .build();
+        // Times before execution
+        LocalDateTime currentTime = LocalDateTime.now(ZoneId.of(timezone));
+        String sparklineLastUpdated = getLastUpdateTimeForSparkline();
 
-                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        // Get top 1000 coins (page 1,2,3,4) -- null entries are pages that failed after all retries
+        List<List<CoinEntity>> pages = fetchMarketPages(sparklineLastUpdated);
+        List<FetchedMarketPage> merged = mergeMarketPages(pages, currentTime.format(dateTimeFormatter));
 
-                    if (response == null || response.statusCode() != 200) {
-                        return;
-                    }
+        // Only update stored map if able to get new results
+        if (merged.isEmpty()) {
+            return false;
+        }
 
-                    String body = response.body();
-                    CoinEntity[] parsedData = gson.fromJson(body, CoinEntity[].class);
+        lastMarketPages = merged;
 
-                    for (CoinEntity coin : parsedData) {
-                        // Skip outdated coins that contain '[OLD]' or '(OLD)' in their name (should only be a few at most)
-                        if (coin.name.contains("[OLD]") || coin.name.contains("(OLD)")) {
-                            continue;
-                        }
+        // Stamped with the oldest page's fetch time, so pages carried over from an earlier refresh are never shown as fresh
+        String lastUpdated = null;
+        List<CoinEntity> result = new ArrayList<>();
+
+        for (FetchedMarketPage page : merged) {
+            if (lastUpdated == null || (page.lastUpdated != null && page.lastUpdated.compareTo(lastUpdated) < 0)) {
+                lastUpdated = page.lastUpdated;
+            }
+
+            result.addAll(page.coins);
+        }
+
+        // Coins in the result are not yet visible to readers, so they can be enriched in place
+        // The first refresh after boot may finish before metadata is loaded -- wait briefly so coins have descriptions
+        awaitMetadataLoad(metadataLoadWait);
+        Map<String, MetadataEntity> currentMetadata = metadata;
+        Map<String, String[]> currentRecommendations = recommendedCoins;
+
+        for (CoinEntity coin : result) {
+            String coinId = coin.id;
+
+            // Get metadata for coin (if available)
+            MetadataEntity data = currentMetadata == null ? null : currentMetadata.get(coinId);
+
+            // Update coin with metadata
+            if (data != null) {
+                coin.blockTime = data.blockTime;
+                coin.hashingAlgorithm = data.hashingAlgorithm;
+                coin.description = data.description;
+                coin.homepageUrl = data.homepageUrl;
+                coin.subredditUrl = data.subredditUrl;
+                coin.genesisDate = data.genesisDate;
+                coin.positiveSentimentPercentage = data.positiveSentimentPercentage;
+            }
+
+            // Get recommendations for coin (if available)
+            if (currentRecommendations != null && !currentRecommendations.isEmpty()) {
+                coin.recommendedCoins = currentRecommendations.get(coinId);
+            }
+        }
+
+        publishMarketData(result, lastUpdated, getPlannedRefresh(allCoinsJob), false);
+
+        return true;
+    }
+
+    // Builds and publishes the market snapshot from enriched coins ('restored' if the coins were saved before the last shutdown)
+    private void publishMarketData(List<CoinEntity> result, String lastUpdated, Instant nextRefresh, boolean restored) {
+        // Encode the enriched coins (and deltas from recent versions) once so requests can be served from snapshots
+        Map<Long, MarketDeltaEntity> deltas = marketDeltaRing.publish(result);
+        long version = marketDeltaRing.getLatestVersion();
+
+        Map<Long, ResponseSnapshot> deltaResponses = new HashMap<>();
+        for (Map.Entry<Long, MarketDeltaEntity> entry : deltas.entrySet()) {
+            deltaResponses.put(entry.getKey(), snapshotEncoder.encode(lastUpdated, entry.getValue(), nextRefresh, version));
+        }
+
+        MarketDeltaEntity fullDelta = marketDeltaRing.buildFullDelta(version, result);
+        ResponseSnapshot fullDeltaResponse = snapshotEncoder.encode(lastUpdated, fullDelta, nextRefresh, version);
+
+        // Only the column store is retained -- the parsed entities become garbage once they are saved
+        MarketColumnStore coins = new MarketColumnStore(result);
+
+        // Encode each coin once -- used for both the full response and paginated responses
+        byte[] prefix = snapshotEncoder.encodeListPrefix(lastUpdated);
+        byte[][] encodedCoins = snapshotEncoder.encodeEach(coins);
+
+        ResponseSnapshot response = snapshotEncoder.encodeList(lastUpdated, prefix, encodedCoins, nextRefresh, version);
+
+        // Downsample sparklines to each common chart resolution (LTTB) and encode them the same way
+        Map<Integer, MarketColumnStore> sparklineStores = new HashMap<>();
+        Map<Integer, byte[][]> sparklineEncodings = new HashMap<>();
+        Map<Integer, ResponseSnapshot> sparklineResponses = new HashMap<>();
+        Map<Integer, ResponseSnapshot> binarySparklineResponses = new HashMap<>();
+
+        for (int points : sparklineResolutions) {
+            MarketColumnStore store = coins.withSparklinePoints(points);
+            byte[][] encoded = snapshotEncoder.encodeEach(store);
+
+            sparklineStores.put(points, store);
+            sparklineEncodings.put(points, encoded);
+            sparklineResponses.put(points, snapshotEncoder.encodeList(lastUpdated, prefix, encoded, nextRefresh, version));
+            binarySparklineResponses.put(points, snapshotEncoder.encodeBinary(lastUpdated, store, nextRefresh, version));
+        }
+
+        MarketIndex marketIndex = new MarketIndex(lastUpdated, version, prefix, coins, encodedCoins, sparklineEncodings);
+
+        List<CoinSearchEntity> searchEntities = new ArrayList<>();
+        for (CoinEntity coin : result) {
+            searchEntities.add(new CoinSearchEntity(coin.id, coin.symbol, coin.name, coin.image, coin.marketCapRank));
+        }
 
-                        coin.sparklineLastUpdated = sparklineLastUpdated;
+        CoinSearchIndex coinSearchIndex = new CoinSearchIndex(prefix, coins, snapshotEncoder.encodeEach(searchEntities));
 
-                        result.add(coin);
+        // Publish everything at once
+        MarketSnapshot published = new MarketSnapshot(coins, lastUpdated, version, response, deltaResponses, fullDeltaResponse,
+                marketIndex, coinSearchIndex, sparklineStores, sparklineResponses,
+                snapshotEncoder.encodeBinary(lastUpdated, coins, nextRefresh, version), binarySparklineResponses);
+        MarketSnapshot previous = marketSnapshot.getAndSet(published);
+        rebuildBootstrap();
+        startupTracker.complete(allCoinsJob);
+
+        // Stream clients get the changes since the version they last received (a full delta after the first refresh)
+        updateStream.publishMarket(version, published.getDeltaResponse(previous.getVersion()));
+
+        // Restored coins are already in the price history and on disk
+        if (restored) {
+            return;
+        }
+
+        // Record the refresh in the price history (after publishing, so a slow disk never delays new prices)
+        if (priceHistoryStore != null) {
+            try {
+                priceHistoryStore.append(version, coins);
+            } catch (IOException ignored) {
+            }
+        }
+
+        saveSnapshot(allCoinsJob, lastUpdated, nextRefresh, result);
+    }
+
+    // Fetches all market data pages with bounded concurrency
+    // Pages are split into lanes that each fetch their pages one after another, so at most marketPageConcurrency calls are in flight
+    private List<List<CoinEntity>> fetchMarketPages(String sparklineLastUpdated) throws InterruptedException {
+        List<List<CoinEntity>> pages = new ArrayList<>(Collections.nCopies(marketPageCount, null));
+        List<Thread> lanes = new ArrayList<>();
+
+        for (int lane = 0; lane < marketPageConcurrency; lane++) {
+            int firstPage = lane + 1;
+
+            lanes.add(Thread.ofVirtual().name("market-lane-" + lane).start(() -> {
+                // Each page starts once the previous page in this lane finishes (whether or not it succeeded)
+                for (int page = firstPage; page <= marketPageCount; page += marketPageConcurrency) {
+                    try {
+                        pages.set(page - 1, fetchMarketPage(page, sparklineLastUpdated));
+                    } catch (InterruptedException e) {
+                        return;
+                    } catch (IOException | RuntimeException ignored) {
+                        // Left null -- filled in from the last refresh
                     }
-                } catch (Exception ignored) {
                 }
+            }));
+        }
+
+        try {
+            for (Thread lane : lanes) {
+                lane.join();
+            }
+        } catch (InterruptedException e) {
+            // Refresh cancelled (timeout or shutdown) -- stop any requests still in flight
+            for (Thread lane : lanes) {
+                lane.interrupt();
             }
 
-            // Only update stored map if able to get new results
-            if (!result.isEmpty()) {
-                allCoins = result;
-                allCoinsLastUpdated = currentTime.format(dateTimeFormatter);
+            throw e;
+        }
+
+        return pages;
+    }
+
+    // Fetches a single page of market data (timeouts, retries, and hedging a slow page are handled by the client)
+    private List<CoinEntity> fetchMarketPage(int page, String sparklineLastUpdated) throws IOException, InterruptedException {
+        String endpoint = "/coins/markets?vs_currency=usd&order=market_cap_desc&per_page=" + marketPageSize + "&page="
+                + page + "&sparkline=true&price_change_percentage=7d%2C14d%2C30d%2C1y&locale=en&precision=full";
+
+        UpstreamResponse response = coinGeckoClient.get(endpoint, marketPagePolicy);
+
+        if (!response.isSuccessful()) {
+            throw new IOException("Unexpected response " + response.getStatusCode() + " for market data page " + page);
+        }
+
+        try (InputStream body = response.getBody()) {
+            return parseMarketPage(body, sparklineLastUpdated);
+        }
+    }
+
+    // Parses coins one at a time from the response body
+    private List<CoinEntity> parseMarketPage(InputStream body, String sparklineLastUpdated) throws IOException {
+        List<CoinEntity> result = new ArrayList<>();
+
+        jsonParser.readArray(body, CoinEntity.class, coin -> {
+            // Skip outdated coins that contain '[OLD]' or '(OLD)' in their name (should only be a few at most)
+            if (coin.name.contains("[OLD]") || coin.name.contains("(OLD)")) {
+                return;
             }
 
-            // Get metadata for each coin (if available)
-            if (metadata != null && !metadata.isEmpty()) {
-                for (CoinEntity coin : allCoins) {
-                    String coinId = coin.id;
-                    MetadataEntity data = metadata.get(coinId);
-
-                    // Update coin with metadata
-                    if (data != null) {
-                        coin.blockTime = data.blockTime;
-                        coin.hashingAlgorithm = data.hashingAlgorithm;
-                        coin.description = data.description;
-                        coin.homepageUrl = data.homepageUrl;
-                        coin.subredditUrl = data.subredditUrl;
-                        coin.genesisDate = data.genesisDate;
-                        coin.positiveSentimentPercentage = data.positiveSentimentPercentage;
-                    }
+            coin.sparklineLastUpdated = sparklineLastUpdated;
+
+            result.add(coin);
+        });
+
+        return result;
+    }
+
+    // Combines fetched pages in rank order, stamping each with when it was fetched
+    // A failed page is filled in with the same page from the last refresh (skipping coins that moved into a fresh page),
+    // keeping that page's original fetch time
+    // Returns an empty list if no page succeeded so the stored data is kept as is
+    private List<FetchedMarketPage> mergeMarketPages(List<List<CoinEntity>> pages, String lastUpdated) {
+        boolean anySucceeded = false;
+        Set<String> freshIds = new HashSet<>();
+
+        for (List<CoinEntity> page : pages) {
+            if (page != null) {
+                anySucceeded = true;
+
+                for (CoinEntity coin : page) {
+                    freshIds.add(coin.id);
                 }
             }
+        }
+
+        if (!anySucceeded) {
+            return new ArrayList<>();
+        }
+
+        List<FetchedMarketPage> previousPages = lastMarketPages;
+        List<FetchedMarketPage> merged = new ArrayList<>();
 
-            // Get recommendations for each coin (if available)
-            if (recommendedCoins != null && !recommendedCoins.isEmpty()) {
-                for (CoinEntity coin : allCoins) {
-                    String coinId = coin.id;
+        for (int i = 0; i < pages.size(); i++) {
+            List<CoinEntity> page = pages.get(i);
+            String pageLastUpdated = lastUpdated;
 
-                    coin.recommendedCoins = recommendedCoins.get(coinId);
+            if (page == null) {
+                page = new ArrayList<>();
+
+                if (previousPages != null && i < previousPages.size()) {
+                    FetchedMarketPage lastPage = previousPages.get(i);
+                    pageLastUpdated = lastPage.lastUpdated;
+
+                    for (int j = 0; j < lastPage.store.size(); j++) {
+                        if (!freshIds.contains(lastPage.store.getId(j))) {
+                            page.add(lastPage.store.toCoinEntity(j));
+                        }
+                    }
                 }
             }
-        };
 
-        executeBackgroundTask(task);
+            merged.add(new FetchedMarketPage(page, pageLastUpdated));
+        }
+
+        return merged;
     }
 
     // Updates global data (e.g., total market cap) by making 1x API call to the CoinGecko Global API endpoint
-    // Busy period calls: 1,133 | Off period calls: 620
-    @Schedules({@Scheduled(cron = every23MinutesFor14Hours, zone = timezone), @Scheduled(cron = every30MinutesFor10Hours, zone = timezone)})
     public void updateGlobalData() {
-        Runnable task = () -> {
-            String endpoint = "/global";
+        refreshScheduler.submit(globalDataJob, this::refreshGlobalData);
+    }
 
-            try {
-                HttpRequest request = HttpRequest.newBuilder()
-                        .GET()
-                        .uri(URI.create(baseUrl + endpoint))
-                        .setHeader(authHeader, apiKey)
-                        .build();
+    private boolean refreshGlobalData() throws IOException, InterruptedException {
+        refreshPlanner.recordRefresh(globalDataJob, Instant.now());
 
-                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        String endpoint = "/global";
 
-                if (response == null || response.statusCode() != 200) {
-                    return;
-                }
+        UpstreamResponse response = coinGeckoClient.get(endpoint, globalDataPolicy);
 
-                // Parse into container object
-                String body = response.body();
-                GlobalDataContainer container = gson.fromJson(body, GlobalDataContainer.class);
+        if (!response.isSuccessful()) {
+            return false;
+        }
 
-                // Perform processing on container to update global data object
-                processGlobalDataContainer(container);
-            } catch (Exception ignored) {
-            }
-        };
+        try (InputStream body = response.getBody()) {
+
+            // Parse into container object
+            GlobalDataContainer container = jsonParser.read(body, GlobalDataContainer.class);
 
-        executeBackgroundTask(task);
+            // Perform processing on container to update global data object
+            return processGlobalDataContainer(container);
+        }
     }
 
     // Updates trending coin data by making 1x API call to the CoinGecko Trending API endpoint
     // Total calls: 124 calls
-    @Scheduled(fixedRateString = every6Hours)
+    // The first run is started by startBackgroundLoading (skipped if the saved trending coins are still fresh)
+    @Scheduled(fixedRateString = every6Hours, initialDelayString = every6Hours)
     public void updateTrendingCoins() {
-        Runnable task = () -> {
-            String endpoint = "/search/trending";
+        // Fixed rate schedule, so the next refresh is one interval after this one started
+        Instant nextRefresh = Instant.now().plusMillis(Long.parseLong(every6Hours));
 
-            try {
-                HttpRequest request = HttpRequest.newBuilder()
-                        .GET()
-                        .uri(URI.create(baseUrl + endpoint))
-                        .setHeader(authHeader, apiKey)
-                        .build();
+        refreshScheduler.submit(trendingCoinsJob, () -> refreshTrendingCoins(nextRefresh));
+    }
 
-                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    private boolean refreshTrendingCoins(Instant nextRefresh) throws IOException, InterruptedException {
+        // Keep the old data rather than going over the monthly quota (counting every retry the call may make)
+        if (!apiCallBudget.canSpend(trendingCoinsPolicy.getMaxCalls())) {
+            return false;
+        }
 
-                if (response == null || response.statusCode() != 200) {
-                    return;
-                }
+        String endpoint = "/search/trending";
 
-                // Parse into container object
-                String body = response.body();
-                TrendingContainer container = gson.fromJson(body, TrendingContainer.class);
+        UpstreamResponse response = coinGeckoClient.get(endpoint, trendingCoinsPolicy);
 
-                // Perform processing on container to update global data object
-                processTrendingContainer(container);
-            } catch (Exception ignored) {
-            }
-        };
+        if (!response.isSuccessful()) {
+            return false;
+        }
+
+        try (InputStream body = response.getBody()) {
+
+            // Parse into container object
+            TrendingContainer container = jsonParser.read(body, TrendingContainer.class);
 
-        executeBackgroundTask(task);
+            // Perform processing on container to update global data object
+            return processTrendingContainer(container, nextRefresh);
+        }
     }
 
-    // Updates metadata (e.g., descriptions) for the top 1K coins by making 1x API call to the CoinGecko coins API endpoint
-    // Performed over 100 minutes (10 calls per minute)
-    // Total calls: 1000 calls
-    @Scheduled(cron = atFirstOfMonth, zone = timezone)
+    // Updates metadata (e.g., descriptions) for the top 1K coins by making 1x API call per coin to the CoinGecko coins API endpoint
+    // Coins new to the top 1K are fetched within minutes, and every other coin is refetched once its metadata is 30 days old
+    // Total calls: ~1000 calls per month plus new coins
+    @Scheduled(fixedRateString = every10Minutes)
     public void updateMetadata() {
-        Runnable task = () -> {
-            String endpoint = "/coins/";
-            String queryParams = "?localization=false&tickers=false&market_data=false&community_data=true&developer_data=false&sparkline=false";
+        refreshScheduler.submit(metadataJob, this::refreshMetadata);
+    }
 
-            // Verify data exists in coins (possible initial boot during execution)
-            if (allCoins == null || allCoins.isEmpty()) {
-                try {
-                    // Wait 30.5 minutes (30 minute max interval for getting coins + .5 minute for processing), then try again
-                    Thread.sleep(1830000);
+    private boolean refreshMetadata() throws InterruptedException {
+        // Without the loaded metadata every coin would look new
+        try {
+            metadataLoaded.get();
+        } catch (ExecutionException ignored) {
+        }
 
-                    if (allCoins == null || allCoins.isEmpty()) {
-                        return;
-                    }
-                } catch (Exception ignored) {
-                }
-            }
+        boolean published = false;
+        // Batches published since the metadata file was last written
+        int unpersistedBatches = 0;
 
-            // Use new map rather than resetting stored map
-            Map<String, MetadataEntity> result = new HashMap<>();
+        try {
+            while (true) {
+                // Verify data exists in coins (possible initial boot during execution) -- else, try again on the next tick
+                // Read before each batch so coins that enter the top 1K during a run are fetched next
+                MarketColumnStore allCoins = getAllCoins();
+                if (allCoins == null || allCoins.size() == 0) {
+                    return published;
+                }
 
-            // Process 10 coins per minute
-            int numOfIterations = allCoins.size() / 10;
+                List<String> batch = metadataCheckpoint.getDue(allCoins, metadata, metadataBatchSize);
+                if (batch.isEmpty()) {
+                    return published;
+                }
 
-            for (int i = 0; i < numOfIterations; i++) {
-                // Process next 10 coins (or however many left)
-                for (int j = i * 10; j < allCoins.size() && j < (i * 10) + 10; j++) {
-                    CoinEntity coin = allCoins.get(j);
-                    String coinId = coin.id;
+                Map<String, MetadataEntity> result = new HashMap<>();
+                Duration throttle = null;
+                boolean budgetSpent = false;
 
-                    try {
-                        HttpRequest request = HttpRequest.newBuilder()
-                                .GET()
-                                .uri(URI.create(baseUrl + endpoint + coinId + queryParams))
-                                .setHeader(authHeader, apiKey)
-                                .build();
+                for (String coinId : batch) {
+                    // Stop for the month once the quota is spent
+                    if (!apiCallBudget.canSpend(metadataPolicy.getMaxCalls())) {
+                        budgetSpent = true;
+                        break;
+                    }
 
-                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    // Wait for the next call allowed by the rate limit
+                    metadataRateLimiter.acquire();
 
-                        if (response == null || response.statusCode() != 200) {
-                            // Skip to next coin
-                            continue;
-                        }
+                    throttle = fetchMetadata(coinId, result);
+                    if (throttle != null) {
+                        break;
+                    }
+                }
 
-                        // Parse into container object
-                        String body = response.body();
-                        MetadataContainer container = gson.fromJson(body, MetadataContainer.class);
+                // Publish each batch as it lands so an interrupted run keeps what it fetched
+                if (!result.isEmpty()) {
+                    publishMetadata(result);
+                    published = true;
+                    unpersistedBatches++;
+                }
 
-                        // Perform processing on container and add entity to map
-                        processMetadataContainer(result, container, coinId);
-                    } catch (Exception ignored) {
-                    }
+                if (unpersistedBatches >= metadataPersistBatches) {
+                    persistMetadata();
+                    unpersistedBatches = 0;
                 }
 
-                // Wait 1 minute before processing next iteration to avoid rate throttle
                 try {
-                    Thread.sleep(60000);
-                } catch (Exception ignored) {
+                    metadataCheckpoint.save();
+                } catch (IOException ignored) {
                 }
-            }
 
-            if (!result.isEmpty()) {
-                metadata = result;
+                // Stop the run when throttled -- the rest is fetched on a later tick once the limit resets
+                if (throttle != null) {
+                    metadataRateLimiter.pause(throttle);
 
-                // Write metadata entity map to disk
-                try (BufferedWriter writer = new BufferedWriter(new FileWriter(metadataEntitiesFilePath))) {
-                    String json = gson.toJson(metadata);
-                    writer.write(json);
-                } catch (Exception ignored) {
+                    return published;
                 }
 
-                // Write coin descriptions to disk for recommendations script
-                try (BufferedWriter writer = new BufferedWriter(new FileWriter(descriptionsFilePath))) {
-                    // Header row (columns)
-                    writer.write("coinId,description\n");
+                // The same coins would be due again straight away -- the rest is fetched once the quota resets
+                if (budgetSpent) {
+                    return published;
+                }
+            }
+        } finally {
+            if (unpersistedBatches > 0) {
+                persistMetadata();
+            }
+        }
+    }
 
-                    // Write data for each entity and append new line to separate
-                    for (String coinId : metadata.keySet()) {
-                        String description = metadata.get(coinId).description;
+    // Fetches the metadata of one coin into the map and records the attempt
+    // Returns how long to wait if upstream throttled the call or is down (the coin is not recorded, so it stays first in line), else null
+    private Duration fetchMetadata(String coinId, Map<String, MetadataEntity> result) throws InterruptedException {
+        String endpoint = "/coins/";
+        String queryParams = "?localization=false&tickers=false&market_data=false&community_data=true&developer_data=false&sparkline=false";
 
-                        // Skip coin if description is null/empty
-                        if (description == null || description.isEmpty()) {
-                            continue;
-                        }
+        boolean succeeded = false;
 
-                        // Remove escape/quote characters from description and enclose in quotes to prevent CSV issues
-                        description = "\"" + description
-                                .replaceAll("[\\r\\n]+", " ")
-                                .replaceAll("\"", "'")
-                                + "\"";
+        try {
+            UpstreamResponse response = coinGeckoClient.get(endpoint + coinId + queryParams, metadataPolicy);
 
-                        writer.append(coinId).append(",");
-                        writer.append(description).append("\n");
-                    }
-                } catch (Exception ignored) {
+            if (response.getStatusCode() == 429) {
+                return response.getRetryAfter() == null ? metadataThrottleDelay : response.getRetryAfter();
+            }
+
+            try (InputStream body = response.getBody()) {
+                if (response.isSuccessful()) {
+                    // Parse into container object
+                    MetadataContainer container = jsonParser.read(body, MetadataContainer.class);
+
+                    // Perform processing on container and add entity to map
+                    processMetadataContainer(result, container, coinId);
+                    succeeded = result.containsKey(coinId);
                 }
+            }
+        } catch (IOException | RuntimeException ignored) {
+            // Upstream is down rather than this coin failing -- keep the coin first in line and stop the run
+            if (coinGeckoClient.isCircuitOpen()) {
+                return metadataThrottleDelay;
+            }
+        }
+
+        metadataCheckpoint.record(coinId, succeeded);
+
+        return null;
+    }
+
+    // Merges newly fetched metadata into a copy of the map and swaps it in, so readers never see a partial update
+    // Coins that left the top 1K long ago are dropped; the new descriptions reach coins on the next market data refresh
+    // Only the in-memory map is updated -- persistMetadata writes it to disk and rebuilds recommendations
+    private void publishMetadata(Map<String, MetadataEntity> fetched) {
+        Map<String, MetadataEntity> currentMetadata = metadata;
+        Map<String, MetadataEntity> result = currentMetadata == null ? new HashMap<>() : new HashMap<>(currentMetadata);
 
-                // Update recommended coins now that descriptions are saved to disk
-                getRecommendedCoins();
+        result.putAll(fetched);
+        result.keySet().removeAll(metadataCheckpoint.removeExpired());
+
+        metadata = result;
+    }
+
+    // Writes the current metadata map to disk and updates recommended coins from its descriptions
+    // A crash before this runs only loses recent fetches -- coins missing from the saved map are fetched first after a restart
+    private void persistMetadata() {
+        Map<String, MetadataEntity> result = metadata;
+
+        // Write metadata entity map to a temporary file, then rename it over the old file so a crash never leaves half a file
+        try {
+            Path path = Path.of(metadataEntitiesFilePath);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                gson.toJson(result, writer);
             }
-        };
 
-        executeBackgroundTask(task);
+            DurableFiles.replace(temporary, path);
+        } catch (Exception ignored) {
+        }
+
+        // Update recommended coins from the new descriptions (only changed descriptions are re-indexed)
+        updateRecommendedCoins();
     }
 
     // Updates news article headlines every 60 minutes with max 150 articles from Google News
-    @Scheduled(fixedRateString = every60Minutes)
+    // The first run is started by startBackgroundLoading (skipped if the saved news is still fresh)
+    @Scheduled(fixedRateString = every60Minutes, initialDelayString = every60Minutes)
     public void updateNewsFeed() {
-        Runnable task = () -> {
-            try {
-                // CLI commands to execute
-                String[] command = {"python3", googleNewsScriptFilePath};
+        // Fixed rate schedule, so the next refresh is one interval after this one started
+        Instant nextRefresh = Instant.now().plusMillis(Long.parseLong(every60Minutes));
 
-                ProcessBuilder builder = new ProcessBuilder(command);
-                Process process = builder.start();
+        refreshScheduler.submit(newsJob, () -> refreshNewsFeed(nextRefresh));
+    }
 
-                // Wait for script to finish
-                process.waitFor();
+    private boolean refreshNewsFeed(Instant nextRefresh) throws InterruptedException {
+        newsClusterIndex.evictExpired();
 
-                // Read from file that script saved on disk
-                try (BufferedReader reader = new BufferedReader(new FileReader(newsFeedFilePath))) {
-                    StringBuilder buffer = new StringBuilder();
+        // Articles of each story (key: cluster id) in the order each story first appears
+        Map<Long, List<NewsEntity>> clusters = new LinkedHashMap<>();
 
-                    // Parse response
-                    String nextLine;
-                    while ((nextLine = reader.readLine()) != null) {
-                        buffer.append(nextLine);
-                    }
+        for (RawNewsEntity rawData : newsIngestor.ingest()) {
+            NewsEntity entity = processNewsEntity(rawData);
+            entity.clusterId = newsClusterIndex.assign(rawData.url, entity.title, rawData.description, entity.publisherName);
+
+            clusters.computeIfAbsent(entity.clusterId, id -> new ArrayList<>()).add(entity);
+        }
 
-                    RawNewsEntity[] container = gson.fromJson(buffer.toString(), RawNewsEntity[].class);
+        // Only the best article of each story is kept, linked to the coins its headline mentions
+        MarketColumnStore allCoins = getAllCoins();
+        CoinMentionLinker coinMentionLinker = allCoins == null ? null : new CoinMentionLinker(allCoins);
+        List<NewsEntity> result = new ArrayList<>();
 
-                    // Only update if not null and > 0 items -- else, keep old data in memory
-                    if (container != null && container.length > 0) {
-                        news = processNewsEntitiesContainer(container);
-                        newsLastUpdated = LocalDateTime.now(ZoneId.of(timezone)).format(dateTimeFormatter);
-                    }
-                } catch (Exception ignored) {
-                }
+        for (List<NewsEntity> cluster : clusters.values()) {
+            NewsEntity representative = selectRepresentative(cluster);
+            representative.clusterSize = cluster.size();
 
-                process.destroy();
-            } catch (Exception ignored) {
+            if (coinMentionLinker != null) {
+                representative.coinIds = coinMentionLinker.link(representative.title);
             }
-        };
 
-        executeBackgroundTask(task);
+            result.add(representative);
+        }
+
+        // Only update if > 0 items -- else, keep old data in memory
+        if (result.isEmpty()) {
+            return false;
+        }
+
+        String lastUpdated = LocalDateTime.now(ZoneId.of(timezone)).format(dateTimeFormatter);
+        publishNews(List.copyOf(result), lastUpdated, nextRefresh, false);
+
+        return true;
     }
 
-    private void processGlobalDataContainer(GlobalDataContainer container) {
+    private void publishNews(List<NewsEntity> news, String lastUpdated, Instant nextRefresh, boolean restored) {
+        ResponseSnapshot response = snapshotEncoder.encode(lastUpdated, news, nextRefresh);
+
+        // Search index serves filtered pages from the same encoded articles
+        NewsIndex newsIndex = new NewsIndex(snapshotEncoder.encodeListPrefix(lastUpdated), news, snapshotEncoder.encodeEach(news));
+
+        newsSnapshot.set(new NewsSnapshot(news, lastUpdated, response, newsIndex));
+        rebuildBootstrap();
+        startupTracker.complete(newsJob);
+        updateStream.publish(UpdateStream.newsEvent, response);
+
+        if (!restored) {
+            saveSnapshot(newsJob, lastUpdated, nextRefresh, news);
+        }
+    }
+
+    private boolean processGlobalDataContainer(GlobalDataContainer container) {
         if (container == null || container.data == null) {
-            return;
+            return false;
         }
 
         RawGlobalData rawData = container.data;
 
         // Update reference with new object constructed from response data
-        globalData = new GlobalDataEntity(
+        GlobalDataEntity globalData = new GlobalDataEntity(
                 rawData.active_cryptocurrencies, rawData.total_market_cap.usd, rawData.total_volume.usd,
                 rawData.market_cap_percentage.btc, rawData.market_cap_percentage.eth, rawData.market_cap_change_percentage_24h_usd
         );
 
-        globalDataLastUpdated = LocalDateTime.now(ZoneId.of(timezone)).format(dateTimeFormatter);
+        String lastUpdated = LocalDateTime.now(ZoneId.of(timezone)).format(dateTimeFormatter);
+        publishGlobalData(globalData, lastUpdated, getPlannedRefresh(globalDataJob), false);
+
+        return true;
+    }
+
+    private void publishGlobalData(GlobalDataEntity globalData, String lastUpdated, Instant nextRefresh, boolean restored) {
+        ResponseSnapshot response = snapshotEncoder.encode(lastUpdated, globalData, nextRefresh);
+
+        globalDataSnapshot.set(new DatasetSnapshot<>(globalData, lastUpdated, response));
+        rebuildBootstrap();
+        startupTracker.complete(globalDataJob);
+        updateStream.publish(UpdateStream.globalDataEvent, response);
+
+        if (!restored) {
+            saveSnapshot(globalDataJob, lastUpdated, nextRefresh, globalData);
+        }
     }
 
-    private void processTrendingContainer(TrendingContainer container) {
+    private boolean processTrendingContainer(TrendingContainer container, Instant nextRefresh) {
         if (container == null || container.coins == null) {
-            return;
+            return false;
         }
 
         // Temporary list to hold results
@@ -493,9 +1167,26 @@ public class ApiService {
         }
 
         // Update reference to processed results
-        if (!results.isEmpty()) {
-            trendingCoins = results;
-            trendingCoinsLastUpdated = LocalDateTime.now(ZoneId.of(timezone)).format(dateTimeFormatter);
+        if (results.isEmpty()) {
+            return false;
+        }
+
+        String lastUpdated = LocalDateTime.now(ZoneId.of(timezone)).format(dateTimeFormatter);
+        publishTrendingCoins(List.copyOf(results), lastUpdated, nextRefresh, false);
+
+        return true;
+    }
+
+    private void publishTrendingCoins(List<TrendingEntity> trendingCoins, String lastUpdated, Instant nextRefresh, boolean restored) {
+        ResponseSnapshot response = snapshotEncoder.encode(lastUpdated, trendingCoins, nextRefresh);
+
+        trendingCoinsSnapshot.set(new DatasetSnapshot<>(trendingCoins, lastUpdated, response));
+        rebuildBootstrap();
+        startupTracker.complete(trendingCoinsJob);
+        updateStream.publish(UpdateStream.trendingCoinsEvent, response);
+
+        if (!restored) {
+            saveSnapshot(trendingCoinsJob, lastUpdated, nextRefresh, trendingCoins);
         }
     }
 
@@ -530,85 +1221,104 @@ public class ApiService {
         map.put(coinId, entity);
     }
 
-    private List<NewsEntity> processNewsEntitiesContainer(RawNewsEntity[] container) {
-        List<NewsEntity> result = new ArrayList<>();
+    // Prefers articles with a header image, then the earliest report of the story
+    private NewsEntity selectRepresentative(List<NewsEntity> cluster) {
+        NewsEntity best = null;
+        Instant bestPublished = null;
+
+        for (NewsEntity article : cluster) {
+            Instant published = NewsIndex.parsePublishedDate(article.publishedDate);
 
-        for (RawNewsEntity rawData : container) {
-            if (rawData.publisher != null) {
-                String publisherName = rawData.publisher.publisherName;
+            if (best == null) {
+                best = article;
+                bestPublished = published;
+                continue;
+            }
 
-                // Process title
-                int titleEndIndex = rawData.title.lastIndexOf(" - " + publisherName);
-                String title = rawData.title.substring(0, titleEndIndex);
+            boolean hasImage = article.imageUrl != null;
+            boolean bestHasImage = best.imageUrl != null;
 
-                NewsEntity newsEntity = new NewsEntity(title, rawData.publishedDate, rawData.url, publisherName, rawData.imageUrl);
-                result.add(newsEntity);
-            } else {
-                NewsEntity newsEntity = new NewsEntity(rawData.title, rawData.publishedDate, rawData.url, null, rawData.imageUrl);
-                result.add(newsEntity);
+            if (hasImage != bestHasImage) {
+                if (hasImage) {
+                    best = article;
+                    bestPublished = published;
+                }
+            } else if (published != null && (bestPublished == null || published.isBefore(bestPublished))) {
+                best = article;
+                bestPublished = published;
             }
         }
 
-        return result;
+        return best;
     }
 
-    // Generates recommended coins using script
-    // Executed on calling thread rather than separate thread
-    private void getRecommendedCoins() {
-        try {
-            String[] command = {"python3", recommendationScriptFilePath};
+    private NewsEntity processNewsEntity(RawNewsEntity rawData) {
+        if (rawData.publisher != null) {
+            String publisherName = rawData.publisher.publisherName;
 
-            ProcessBuilder builder = new ProcessBuilder(command);
-            Process process = builder.start();
+            // Process title (remove the ' - Publisher' suffix if present)
+            int titleEndIndex = rawData.title.lastIndexOf(" - " + publisherName);
+            String title = titleEndIndex < 0 ? rawData.title : rawData.title.substring(0, titleEndIndex);
 
-            // Wait for process to finish
-            process.waitFor();
+            return new NewsEntity(title, rawData.publishedDate, rawData.url, publisherName, rawData.imageUrl);
+        }
 
-            process.destroy();
+        return new NewsEntity(rawData.title, rawData.publishedDate, rawData.url, null, rawData.imageUrl);
+    }
 
-            // Read newly created file
-            try (BufferedReader reader = new BufferedReader(new FileReader(recommendationsFilePath))) {
-                StringBuilder buffer = new StringBuilder();
+    // Generates recommended coins from the descriptions in the metadata map
+    // Executed on calling thread rather than separate thread
+    private void updateRecommendedCoins() {
+        Map<String, MetadataEntity> currentMetadata = metadata;
 
-                // Parse response
-                String nextLine;
-                while ((nextLine = reader.readLine()) != null) {
-                    buffer.append(nextLine);
-                }
+        if (currentMetadata == null) {
+            return;
+        }
 
-                // Parse JSON into map where key is coin id and value is array of strings of recommended coin ids
-                Map<String, String[]> processed = gson.fromJson(buffer.toString(), new TypeToken<Map<String, String[]>>() {
-                }.getType());
+        Map<String, String> descriptions = new HashMap<>();
+        for (Map.Entry<String, MetadataEntity> entry : currentMetadata.entrySet()) {
+            descriptions.put(entry.getKey(), entry.getValue().description);
+        }
 
-                // Only update if not null and > 0 items -- else, keep old data in memory
-                if (processed != null && !processed.isEmpty()) {
-                    recommendedCoins = processed;
-                }
-            } catch (Exception ignored) {
-            }
-        } catch (Exception ignored) {
+        // Keep old recommendations if nothing changed
+        if (!recommendationEngine.sync(descriptions) && recommendedCoins != null) {
+            return;
+        }
+
+        Map<String, String[]> processed = recommendationEngine.recommendAll(recommendationCount);
+
+        // Only update if > 0 items -- else, keep old data in memory
+        if (!processed.isEmpty()) {
+            recommendedCoins = processed;
         }
     }
 
     // Executed on calling thread rather than separate thread
     private void getMetadataMapFromDisk() {
-        try (BufferedReader reader = new BufferedReader(new FileReader(metadataEntitiesFilePath))) {
-            StringBuilder buffer = new StringBuilder();
+        try {
+            // Parse JSON into map one entry at a time and update reference
+            Map<String, MetadataEntity> processed = new HashMap<>();
+            jsonParser.<MetadataEntity>readObjectEntries(Path.of(metadataEntitiesFilePath), MetadataEntity.class, processed::put);
 
-            // Parse response
-            String nextLine;
-            while ((nextLine = reader.readLine()) != null) {
-                buffer.append(nextLine);
+            // Only update if > 0 items -- else, keep old data in memory
+            if (!processed.isEmpty()) {
+                metadata = processed;
             }
+        } catch (Exception ignored) {
+        }
+    }
 
-            // Parse JSON into map and update reference
-            Map<String, MetadataEntity> processed = gson.fromJson(buffer.toString(), new TypeToken<Map<String, MetadataEntity>>() {
-            }.getType());
+    // Metadata saved before checkpoints existed is treated as fetched when its file was last written, so it is not all refetched at once
+    private void addMissingMetadataCheckpoints() {
+        Map<String, MetadataEntity> currentMetadata = metadata;
 
-            // Only update if not null and > 0 items -- else, keep old data in memory
-            if (processed != null && !processed.isEmpty()) {
-                metadata = processed;
-            }
+        if (currentMetadata == null) {
+            return;
+        }
+
+        try {
+            long lastModified = Files.getLastModifiedTime(Path.of(metadataEntitiesFilePath)).toMillis();
+            metadataCheckpoint.addMissing(currentMetadata.keySet(), lastModified);
         } catch (Exception ignored) {
         }
     }
@@ -669,42 +1379,110 @@ public class ApiService {
         }
     }
 
-    private void executeBackgroundTask(Runnable task) {
-        Thread background = new Thread(task);
+    // Recombines the current snapshot of each dataset into the bootstrap response
+    // Synchronized so that when two refreshes publish at once, the last rebuild always sees both of them
+    private synchronized void rebuildBootstrap() {
+        MarketSnapshot market = marketSnapshot.get();
+        Map<String, ResponseSnapshot> parts = new LinkedHashMap<>();
+
+        parts.put("marketData", market.getResponse());
+        parts.put("globalData", globalDataSnapshot.get().getResponse());
+        parts.put("trendingData", trendingCoinsSnapshot.get().getResponse());
+        parts.put("newsData", newsSnapshot.get().getResponse());
 
-        background.setDaemon(true);
-        background.start();
+        bootstrapSnapshot.set(snapshotEncoder.encodeComposite(parts, market.getVersion()));
     }
 
-    public List<CoinEntity> getAllCoins() {
-        return allCoins;
+    // Expected time of the job's next refresh at its current demand (null if the month's budget is spent)
+    private Instant getPlannedRefresh(String job) {
+        return refreshPlanner.getNextRefresh(job, getDemand(job));
+    }
+
+    // Requests per minute for the job's dataset -- each connected stream client counts as an active client of both datasets
+    private double getDemand(String job) {
+        String dataset = job.equals(allCoinsJob) ? DemandTracker.marketDemand : DemandTracker.globalDataDemand;
+
+        return demandTracker.getRate(dataset) + updateStream.getSubscriberCount() * activeDemand;
+    }
+
+    public PriceHistoryStore getPriceHistoryStore() {
+        return priceHistoryStore;
+    }
+
+    public MarketSnapshot getMarketSnapshot() {
+        return marketSnapshot.get();
+    }
+
+    public MarketColumnStore getAllCoins() {
+        return marketSnapshot.get().getData();
     }
 
     public String getAllCoinsLastUpdated() {
-        return allCoinsLastUpdated;
+        return marketSnapshot.get().getLastUpdated();
+    }
+
+    public ResponseSnapshot getAllCoinsSnapshot() {
+        return marketSnapshot.get().getResponse();
+    }
+
+    public ResponseSnapshot getBootstrapSnapshot() {
+        return bootstrapSnapshot.get();
+    }
+
+    public DatasetSnapshot<GlobalDataEntity> getGlobalDataSnapshot() {
+        return globalDataSnapshot.get();
     }
 
     public GlobalDataEntity getGlobalData() {
-        return globalData;
+        return globalDataSnapshot.get().getData();
     }
 
     public String getGlobalDataLastUpdated() {
-        return globalDataLastUpdated;
+        return globalDataSnapshot.get().getLastUpdated();
+    }
+
+    public DatasetSnapshot<List<TrendingEntity>> getTrendingCoinsSnapshot() {
+        return trendingCoinsSnapshot.get();
     }
 
     public List<TrendingEntity> getTrendingCoins() {
-        return trendingCoins;
+        return trendingCoinsSnapshot.get().getData();
     }
 
     public String getTrendingCoinsLastUpdated() {
-        return trendingCoinsLastUpdated;
+        return trendingCoinsSnapshot.get().getLastUpdated();
+    }
+
+    public NewsSnapshot getNewsSnapshot() {
+        return newsSnapshot.get();
     }
 
     public List<NewsEntity> getNews() {
-        return news;
+        return newsSnapshot.get().getData();
     }
 
     public String getNewsLastUpdated() {
-        return newsLastUpdated;
+        return newsSnapshot.get().getLastUpdated();
+    }
+
+    // One page of market data and when it was fetched
+    // The column store is built before enrichment, so only market data is carried over to later refreshes
+    private static class FetchedMarketPage {
+        private final MarketColumnStore store;
+        // Coins to publish (enriched in place before publishing -- the store is unaffected)
+        private final List<CoinEntity> coins;
+        private final String lastUpdated;
+
+        private FetchedMarketPage(List<CoinEntity> coins, String lastUpdated) {
+            this.store = new MarketColumnStore(coins);
+            this.coins = coins;
+            this.lastUpdated = lastUpdated;
+        }
+
+        private FetchedMarketPage(MarketColumnStore store, String lastUpdated) {
+            this.store = store;
+            this.coins = List.of();
+            this.lastUpdated = lastUpdated;
+        }
     }
 }
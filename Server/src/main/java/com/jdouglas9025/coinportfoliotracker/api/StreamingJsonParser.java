@@ -0,0 +1,78 @@
+package com.jdouglas9025.coinportfoliotracker.api;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+// Parses JSON straight from upstream response streams and files using Gson's JsonReader
+// Entities are produced as they are read, so the full payload is never copied into a String first
+public class StreamingJsonParser {
+    private final Gson gson;
+
+    public StreamingJsonParser(Gson gson) {
+        this.gson = gson;
+    }
+
+    // Parses a single JSON value (e.g., a container object) from a stream and closes it
+    public <T> T read(InputStream stream, Type type) throws IOException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            return gson.fromJson(reader, type);
+        }
+    }
+
+    // Passes each element of a top-level JSON array in a stream to the consumer as it is parsed, then closes the stream
+    public <T> void readArray(InputStream stream, Class<T> type, Consumer<T> consumer) throws IOException {
+        readArray(new InputStreamReader(stream, StandardCharsets.UTF_8), type, consumer);
+    }
+
+    // Passes each entry of a top-level JSON object in a file to the consumer as it is parsed
+    public <T> void readObjectEntries(Path path, Type valueType, BiConsumer<String, T> consumer) throws IOException {
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(path, StandardCharsets.UTF_8))) {
+            if (reader.peek() == JsonToken.NULL) {
+                return;
+            }
+
+            reader.beginObject();
+
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                T value = gson.fromJson(reader, valueType);
+
+                consumer.accept(key, value);
+            }
+
+            reader.endObject();
+        }
+    }
+
+    private <T> void readArray(Reader source, Class<T> type, Consumer<T> consumer) throws IOException {
+        try (JsonReader reader = new JsonReader(source)) {
+            if (reader.peek() == JsonToken.NULL) {
+                return;
+            }
+
+            reader.beginArray();
+
+            while (reader.hasNext()) {
+                T value = gson.fromJson(reader, type);
+
+                if (value != null) {
+                    consumer.accept(value);
+                }
+            }
+
+            reader.endArray();
+        }
+    }
+}
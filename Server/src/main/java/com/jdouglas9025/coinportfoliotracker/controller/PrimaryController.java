@@ -1,70 +1,615 @@
 package com.jdouglas9025.coinportfoliotracker.controller;
 
 import com.jdouglas9025.coinportfoliotracker.api.ApiService;
-import com.jdouglas9025.coinportfoliotracker.entity.globaldata.GlobalDataEntity;
-import com.jdouglas9025.coinportfoliotracker.entity.market.CoinEntity;
+import com.jdouglas9025.coinportfoliotracker.entity.market.PriceHistoryEntity;
+import com.jdouglas9025.coinportfoliotracker.entity.market.SparklineEntity;
 import com.jdouglas9025.coinportfoliotracker.entity.news.NewsEntity;
 import com.jdouglas9025.coinportfoliotracker.entity.trending.TrendingEntity;
+import com.jdouglas9025.coinportfoliotracker.history.PriceHistoryStore;
+import com.jdouglas9025.coinportfoliotracker.market.CoinSearchIndex;
+import com.jdouglas9025.coinportfoliotracker.market.MarketColumnStore;
+import com.jdouglas9025.coinportfoliotracker.market.MarketIndex;
+import com.jdouglas9025.coinportfoliotracker.market.MarketSnapshot;
+import com.jdouglas9025.coinportfoliotracker.market.MarketSortOption;
+import com.jdouglas9025.coinportfoliotracker.news.NewsIndex;
+import com.jdouglas9025.coinportfoliotracker.news.NewsSnapshot;
+import com.jdouglas9025.coinportfoliotracker.news.NewsSortOption;
+import com.jdouglas9025.coinportfoliotracker.scheduler.DemandTracker;
+import com.jdouglas9025.coinportfoliotracker.snapshot.DatasetSnapshot;
+import com.jdouglas9025.coinportfoliotracker.snapshot.EntityProjection;
+import com.jdouglas9025.coinportfoliotracker.snapshot.ProjectedList;
+import com.jdouglas9025.coinportfoliotracker.snapshot.ProjectionCache;
+import com.jdouglas9025.coinportfoliotracker.snapshot.ResponseSnapshot;
+import com.jdouglas9025.coinportfoliotracker.snapshot.SnapshotEncoder;
+import com.jdouglas9025.coinportfoliotracker.stream.UpdateStream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
+// Each endpoint serves the pre-encoded snapshot built by ApiService on its last refresh
 @RestController
 @RequestMapping("/crypto")
 public class PrimaryController {
+    // Response header holding the version of versioned datasets (market data) for use with delta requests
+    private static final String dataVersionHeader = "X-Data-Version";
+    // Response header holding the number of coins matching a filter (before pagination)
+    private static final String totalCountHeader = "X-Total-Count";
+    // Response header holding the cursor for the next page of a paginated news query (absent on the last page)
+    private static final String nextCursorHeader = "X-Next-Cursor";
+    // Price history range when 'from' is not given, and the most samples returned when 'step' is not given
+    private static final Duration defaultHistoryRange = Duration.ofDays(30);
+    private static final long maxHistoryPoints = 2000;
+    private static final MediaType binaryMediaType = MediaType.parseMediaType(MarketColumnStore.binaryContentType);
+
     private final ApiService apiService;
+    private final ProjectionCache projectionCache;
+    // Tags and compresses query results built per request
+    private final SnapshotEncoder snapshotEncoder;
+    private final UpdateStream updateStream;
+    // Requests for market and global data set how often they are refreshed
+    private final DemandTracker demandTracker;
 
     @Autowired
-    public PrimaryController(ApiService apiService) {
+    public PrimaryController(ApiService apiService, ProjectionCache projectionCache, SnapshotEncoder snapshotEncoder,
+                             UpdateStream updateStream, DemandTracker demandTracker) {
         this.apiService = apiService;
+        this.projectionCache = projectionCache;
+        this.snapshotEncoder = snapshotEncoder;
+        this.updateStream = updateStream;
+        this.demandTracker = demandTracker;
     }
 
     // Returns market data on all supported coins
+    // Optionally filtered (q), sorted (sort, order), and paginated (offset, limit) using the precomputed market index
+    // Sparklines can be downsampled to a precomputed resolution (sparklinePoints) or left out entirely (sparklinePoints=0)
+    // Full responses are also available in a compact binary format to clients that list it in the Accept header
+    // A comma-separated 'fields' list limits each coin to those fields (always JSON)
     @GetMapping("/marketData")
-    public ResponseEntity<Response<List<CoinEntity>>> getMarketData() {
-        String lastUpdated = apiService.getAllCoinsLastUpdated();
-        List<CoinEntity> data = apiService.getAllCoins();
+    public ResponseEntity<byte[]> getMarketData(@RequestParam(value = "sort", required = false) String sort,
+                                                @RequestParam(value = "order", required = false) String order,
+                                                @RequestParam(value = "q", required = false) String q,
+                                                @RequestParam(value = "offset", required = false) Integer offset,
+                                                @RequestParam(value = "limit", required = false) Integer limit,
+                                                @RequestParam(value = "sparklinePoints", required = false) Integer sparklinePoints,
+                                                @RequestParam(value = "fields", required = false) String fields,
+                                                @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        demandTracker.record(DemandTracker.marketDemand);
+
+        // Read the market data once so the full response and the index always come from the same refresh
+        MarketSnapshot marketSnapshot = apiService.getMarketSnapshot();
+        ResponseSnapshot snapshot = marketSnapshot.getResponse();
+
+        MarketIndex index = marketSnapshot.getMarketIndex();
+        if (index == null) {
+            return buildResponse(snapshot, acceptEncoding, ifNoneMatch, true);
+        }
+
+        if (sparklinePoints != null && !marketSnapshot.hasSparklinePoints(sparklinePoints)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        // Projected coins are encoded once per version and projection, then served like the precomputed encodings
+        ProjectedList projected = null;
+
+        if (fields != null) {
+            Set<String> fieldNames = parseFields(fields);
+            MarketColumnStore.Projection projection = fieldNames == null ? null : projectionCache.getMarketProjection(fieldNames);
+
+            if (projection == null) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+
+            ResponseSnapshot source = sparklinePoints == null ? snapshot : marketSnapshot.getSparklineResponse(sparklinePoints);
+            projected = projectionCache.getMarket(source, marketSnapshot.getSparklineStore(sparklinePoints), projection);
+        }
+
+        // Serve a full snapshot unless the request asks for a subset or a different order
+        if (sort == null && order == null && q == null && offset == null && limit == null) {
+            if (projected != null) {
+                snapshot = projected.getResponse();
+            } else if (acceptsBinary(accept)) {
+                snapshot = marketSnapshot.getBinaryResponse(sparklinePoints);
+            } else if (sparklinePoints != null) {
+                snapshot = marketSnapshot.getSparklineResponse(sparklinePoints);
+            }
+
+            return buildResponse(snapshot, acceptEncoding, ifNoneMatch, true);
+        }
+
+        MarketSortOption sortOption = sort == null ? MarketSortOption.RANK : MarketSortOption.fromParam(sort);
+        if (sortOption == null || (order != null && !order.equalsIgnoreCase("asc") && !order.equalsIgnoreCase("desc"))) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        // Rank defaults to top to bottom, every other option defaults to largest first
+        boolean descending = order == null ? sortOption != MarketSortOption.RANK : order.equalsIgnoreCase("desc");
+        int start = offset == null ? 0 : offset;
+        int count = limit == null ? index.size() : limit;
+
+        if (start < 0 || count < 1) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(getCacheControl(snapshot));
+        headers.set(dataVersionHeader, Long.toString(index.getVersion()));
+
+        // Same version and same query always produce the same page
+        String query = "sort=" + sortOption.getParam() + "&order=" + (descending ? "desc" : "asc") + "&q=" + encodeQueryValue(q)
+                + "&offset=" + start + "&limit=" + count + "&sparklinePoints=" + sparklinePoints + "&fields=" + getCanonicalFields(fields);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        headers.setETag(getQueryETag(Long.toString(index.getVersion()), query, gzip));
+
+        if (ResponseSnapshot.matches(ifNoneMatch, headers.getETag())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        MarketIndex.MarketPage page = projected == null
+                ? index.query(sortOption, descending, q, start, count, sparklinePoints)
+                : index.query(sortOption, descending, q, start, count, projected.getEncodedItems());
+
+        headers.set(totalCountHeader, Integer.toString(page.getTotal()));
+
+        return buildQueryResponse(page.getJson(), headers, gzip);
+    }
+
+    // Returns coins matching a search term (id, symbol, or name), best matches first
+    @GetMapping("/search")
+    public ResponseEntity<byte[]> searchCoins(@RequestParam(value = "q") String q,
+                                              @RequestParam(value = "limit", required = false, defaultValue = "10") Integer limit) {
+        if (limit < 1 || limit > 50) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        demandTracker.record(DemandTracker.marketDemand);
+
+        MarketSnapshot marketSnapshot = apiService.getMarketSnapshot();
+        CoinSearchIndex index = marketSnapshot.getCoinSearchIndex();
+        if (index == null) {
+            return new ResponseEntity<>(marketSnapshot.getResponse().getBody(), getJsonHeaders(), HttpStatus.OK);
+        }
+
+        return new ResponseEntity<>(index.search(q, limit), getJsonHeaders(), HttpStatus.OK);
+    }
+
+    // Returns a coin's 7-day sparkline, optionally downsampled to 'points' values with LTTB
+    @GetMapping("/sparkline/{id}")
+    public ResponseEntity<Response<SparklineEntity>> getSparkline(@PathVariable("id") String id,
+                                                                  @RequestParam(value = "points", required = false) Integer points,
+                                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (points != null && points < 2) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        demandTracker.record(DemandTracker.marketDemand);
+
+        MarketSnapshot marketSnapshot = apiService.getMarketSnapshot();
+        MarketColumnStore coins = marketSnapshot.getData();
+
+        int position = coins == null ? -1 : coins.indexOf(id);
+        if (position == -1) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(getCacheControl(marketSnapshot.getResponse()));
+        headers.set(dataVersionHeader, Long.toString(marketSnapshot.getVersion()));
+        headers.setETag("\"" + marketSnapshot.getVersion() + "-" + id + "-" + (points == null ? "all" : points) + "\"");
+
+        if (ResponseSnapshot.matches(ifNoneMatch, headers.getETag())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        SparklineEntity sparkline = new SparklineEntity(id, coins.getSparklineLastUpdated(position), marketSnapshot.getSparkline(position, points));
 
-        Response<List<CoinEntity>> response = new Response<>(lastUpdated, data);
+        return new ResponseEntity<>(new Response<>(marketSnapshot.getLastUpdated(), sparkline), headers, HttpStatus.OK);
+    }
+
+    // Returns a coin's recorded price history between 'from' and 'to' (epoch milliseconds, default: the last 30 days)
+    // Samples are at least 'step' milliseconds apart (default: spread the range over at most maxHistoryPoints samples)
+    @GetMapping("/history/{id}")
+    public ResponseEntity<Response<PriceHistoryEntity>> getHistory(@PathVariable("id") String id,
+                                                                   @RequestParam(value = "from", required = false) Long from,
+                                                                   @RequestParam(value = "to", required = false) Long to,
+                                                                   @RequestParam(value = "step", required = false) Long step) {
+        PriceHistoryStore historyStore = apiService.getPriceHistoryStore();
+        if (historyStore == null) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        long end = to == null ? System.currentTimeMillis() : to;
+        long start = from == null ? end - defaultHistoryRange.toMillis() : from;
+
+        if (start > end || (step != null && step < 1)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        long interval = step == null ? Math.max((end - start) / maxHistoryPoints, 1) : step;
+
+        PriceHistoryEntity history = historyStore.query(id, start, end, interval);
+        if (history == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        // History only grows when market data refreshes
+        MarketSnapshot marketSnapshot = apiService.getMarketSnapshot();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(getCacheControl(marketSnapshot.getResponse()));
+
+        return new ResponseEntity<>(new Response<>(marketSnapshot.getLastUpdated(), history), headers, HttpStatus.OK);
+    }
+
+    // Returns changes to market data since the client's version (or all coins if that version is no longer retained)
+    @GetMapping("/marketData/delta")
+    public ResponseEntity<byte[]> getMarketDataDelta(@RequestParam(value = "since", required = false) Long since,
+                                                     @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        demandTracker.record(DemandTracker.marketDemand);
+
+        return buildResponse(apiService.getMarketSnapshot().getDeltaResponse(since), acceptEncoding, ifNoneMatch);
+    }
+
+    // Returns market, global, trending, and news data in one response (each under its endpoint's name, with its own
+    // 'lastUpdated') so an app launch needs a single request
+    @GetMapping("/bootstrap")
+    public ResponseEntity<byte[]> getBootstrap(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        demandTracker.record(DemandTracker.marketDemand);
+        demandTracker.record(DemandTracker.globalDataDemand);
+
+        return buildResponse(apiService.getBootstrapSnapshot(), acceptEncoding, ifNoneMatch);
+    }
+
+    // Streams market, global, trending, and news updates as Server-Sent Events as soon as each refresh is published
+    // Market updates are deltas -- a client that sees a 'sinceVersion' other than the last version it applied missed an
+    // event and should fetch /marketData/delta?since= to catch up
+    // A reconnecting client (Last-Event-ID = last market version it received) is first sent the changes since that version
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> getStream(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        MarketSnapshot marketSnapshot = apiService.getMarketSnapshot();
+        long version = marketSnapshot.getVersion();
+        ServerSentEvent<String> catchUp = null;
+
+        if (lastEventId != null && version > 0 && lastEventId != version) {
+            catchUp = updateStream.buildMarketEvent(version, marketSnapshot.getDeltaResponse(lastEventId));
+        }
 
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return updateStream.subscribe(catchUp);
     }
 
     // Returns global data (e.g., market cap)
     @GetMapping("/globalData")
-    public ResponseEntity<Response<GlobalDataEntity>> getGlobalData() {
-        String lastUpdated = apiService.getGlobalDataLastUpdated();
-        GlobalDataEntity data = apiService.getGlobalData();
+    public ResponseEntity<byte[]> getGlobalData(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        demandTracker.record(DemandTracker.globalDataDemand);
 
-        Response<GlobalDataEntity> response = new Response<>(lastUpdated, data);
-
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return buildResponse(apiService.getGlobalDataSnapshot().getResponse(), acceptEncoding, ifNoneMatch);
     }
 
-    // Returns trending coins
+    // Returns trending coins (optionally limited to a comma-separated list of fields)
     @GetMapping("/trendingData")
-    public ResponseEntity<Response<List<TrendingEntity>>> getTrending() {
-        String lastUpdated = apiService.getTrendingCoinsLastUpdated();
-        List<TrendingEntity> data = apiService.getTrendingCoins();
+    public ResponseEntity<byte[]> getTrending(@RequestParam(value = "fields", required = false) String fields,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return buildProjectedResponse(apiService.getTrendingCoinsSnapshot(), TrendingEntity.class, fields, acceptEncoding, ifNoneMatch);
+    }
+
+    // Returns recent news article headlines from Google News (optionally limited to a comma-separated list of fields)
+    // Optionally searched (q), filtered by publisher, mentioned coin id (coin), and publish time (from, to: epoch milliseconds),
+    // sorted (sort: relevance, newest, oldest), and paginated (limit, then the cursor from the previous page's X-Next-Cursor)
+    @GetMapping("/newsData")
+    public ResponseEntity<byte[]> getNews(@RequestParam(value = "q", required = false) String q,
+                                          @RequestParam(value = "publisher", required = false) String publisher,
+                                          @RequestParam(value = "coin", required = false) String coin,
+                                          @RequestParam(value = "from", required = false) Long from,
+                                          @RequestParam(value = "to", required = false) Long to,
+                                          @RequestParam(value = "sort", required = false) String sort,
+                                          @RequestParam(value = "cursor", required = false) String cursor,
+                                          @RequestParam(value = "limit", required = false) Integer limit,
+                                          @RequestParam(value = "fields", required = false) String fields,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Read the news once so the full response and the index always come from the same refresh
+        NewsSnapshot newsSnapshot = apiService.getNewsSnapshot();
+
+        // Serve a full snapshot unless the request asks for a subset or a different order
+        if (q == null && publisher == null && coin == null && from == null && to == null && sort == null && cursor == null && limit == null) {
+            return buildProjectedResponse(newsSnapshot, NewsEntity.class, fields, acceptEncoding, ifNoneMatch);
+        }
+
+        NewsIndex index = newsSnapshot.getNewsIndex();
+        if (index == null) {
+            return buildResponse(newsSnapshot.getResponse(), acceptEncoding, ifNoneMatch);
+        }
+
+        // Relevance is only meaningful when searching
+        boolean searching = q != null && !q.isBlank();
+        NewsSortOption sortOption = sort == null ? (searching ? NewsSortOption.RELEVANCE : NewsSortOption.NEWEST) : NewsSortOption.fromParam(sort);
+        int count = limit == null ? index.size() : limit;
+
+        if (sortOption == null || count < 1 || (from != null && to != null && from > to)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        // Cursors are tied to one version of the feed -- a stale cursor is rejected so pages never skip or repeat articles
+        String version = newsSnapshot.getResponse().getBodyETag().replace("\"", "");
+        int start = 0;
+
+        if (cursor != null) {
+            Integer decoded = decodeCursor(cursor, version);
+
+            if (decoded == null) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+
+            start = decoded;
+        }
+
+        byte[][] encoded = null;
+
+        if (fields != null) {
+            Set<String> fieldNames = parseFields(fields);
+            EntityProjection projection = fieldNames == null ? null : projectionCache.getEntityProjection(NewsEntity.class, fieldNames);
+
+            if (projection == null) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+
+            encoded = projectionCache.getList(newsSnapshot.getResponse(), newsSnapshot.getData(), projection).getEncodedItems();
+        }
 
-        Response<List<TrendingEntity>> response = new Response<>(lastUpdated, data);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(getCacheControl(newsSnapshot.getResponse()));
 
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        // Same version and same query always produce the same page
+        String query = "q=" + encodeQueryValue(q) + "&publisher=" + encodeQueryValue(publisher) + "&coin=" + encodeQueryValue(coin)
+                + "&from=" + from + "&to=" + to + "&sort=" + sortOption.getParam() + "&offset=" + start + "&limit=" + count
+                + "&fields=" + getCanonicalFields(fields);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        headers.setETag(getQueryETag(version, query, gzip));
+
+        if (ResponseSnapshot.matches(ifNoneMatch, headers.getETag())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        NewsIndex.NewsPage page = encoded == null
+                ? index.query(q, publisher, coin, from, to, sortOption, start, count)
+                : index.query(q, publisher, coin, from, to, sortOption, start, count, encoded);
+
+        headers.set(totalCountHeader, Integer.toString(page.getTotal()));
+
+        if (page.getNextOffset() != -1) {
+            headers.set(nextCursorHeader, encodeCursor(version, page.getNextOffset()));
+        }
+
+        return buildQueryResponse(page.getJson(), headers, gzip);
     }
 
-    // Returns recent news article headlines from Google News
-    @GetMapping("/newsData")
-    public ResponseEntity<Response<List<NewsEntity>>> getNews() {
-        String lastUpdated = apiService.getNewsLastUpdated();
-        List<NewsEntity> data = apiService.getNews();
+    // Serves the dataset's snapshot, or its cached projection if fields are requested
+    private ResponseEntity<byte[]> buildProjectedResponse(DatasetSnapshot<? extends List<?>> dataset, Class<?> type, String fields,
+                                                          String acceptEncoding, String ifNoneMatch) {
+        if (fields == null) {
+            return buildResponse(dataset.getResponse(), acceptEncoding, ifNoneMatch);
+        }
+
+        Set<String> fieldNames = parseFields(fields);
+        EntityProjection projection = fieldNames == null ? null : projectionCache.getEntityProjection(type, fieldNames);
+
+        if (projection == null) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        // Nothing to project before the first refresh
+        if (dataset.getData() == null) {
+            return buildResponse(dataset.getResponse(), acceptEncoding, ifNoneMatch);
+        }
+
+        ProjectedList projected = projectionCache.getList(dataset.getResponse(), dataset.getData(), projection);
+
+        return buildResponse(projected.getResponse(), acceptEncoding, ifNoneMatch);
+    }
+
+    // Cursor is the feed version and the position of the next article, base64url encoded so clients treat it as opaque
+    private String encodeCursor(String version, int offset) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((version + ":" + offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns the position in the cursor, or null if it is malformed or from another version of the feed
+    private Integer decodeCursor(String cursor, String version) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(':');
+
+            if (separator == -1 || !decoded.substring(0, separator).equals(version)) {
+                return null;
+            }
+
+            int offset = Integer.parseInt(decoded.substring(separator + 1));
+
+            return offset < 0 ? null : offset;
+        } catch (IllegalArgumentException ignored) {
+            return null;
+        }
+    }
+
+    // Splits a comma-separated field list -- returns null if it names no fields
+    private Set<String> parseFields(String fields) {
+        Set<String> result = new LinkedHashSet<>();
+
+        for (String field : fields.split(",")) {
+            if (!field.isBlank()) {
+                result.add(field.trim());
+            }
+        }
+
+        return result.isEmpty() ? null : result;
+    }
+
+    private ResponseEntity<byte[]> buildResponse(ResponseSnapshot snapshot, String acceptEncoding, String ifNoneMatch) {
+        return buildResponse(snapshot, acceptEncoding, ifNoneMatch, false);
+    }
+
+    // Serves a page of query results built for this request, gzip compressed if the client accepts it
+    private ResponseEntity<byte[]> buildQueryResponse(byte[] json, HttpHeaders headers, boolean gzip) {
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+            return new ResponseEntity<>(snapshotEncoder.compress(json), headers, HttpStatus.OK);
+        }
+
+        return new ResponseEntity<>(json, headers, HttpStatus.OK);
+    }
+
+    // Tag for a page of query results: the dataset version and a hash of the canonical query, with its own variant for gzip
+    private String getQueryETag(String version, String canonicalQuery, boolean gzip) {
+        return "\"" + version + "-" + snapshotEncoder.getQueryTag(canonicalQuery) + (gzip ? "-gzip" : "") + "\"";
+    }
+
+    // Encodes a free-text parameter for a canonical query string (so values containing '&' or '=' cannot collide)
+    private String encodeQueryValue(String value) {
+        return value == null ? "" : URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    // Requested fields in sorted order (the order they are listed in does not change the response)
+    private String getCanonicalFields(String fields) {
+        Set<String> fieldNames = fields == null ? null : parseFields(fields);
+
+        return fieldNames == null ? "" : encodeQueryValue(String.join(",", new TreeSet<>(fieldNames)));
+    }
+
+    // Serves the gzip copy of the snapshot if the client accepts it -- else, the uncompressed copy
+    // Returns 304 with no body if the client already has the current version
+    // Negotiated responses (JSON or binary depending on the Accept header) also vary on Accept
+    private ResponseEntity<byte[]> buildResponse(ResponseSnapshot snapshot, String acceptEncoding, String ifNoneMatch, boolean negotiated) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setVary(negotiated ? List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING) : List.of(HttpHeaders.ACCEPT_ENCODING));
+        headers.setETag(gzip ? snapshot.getGzipETag() : snapshot.getBodyETag());
+        headers.setCacheControl(getCacheControl(snapshot));
+
+        if (snapshot.getVersion() > 0) {
+            headers.set(dataVersionHeader, Long.toString(snapshot.getVersion()));
+        }
+
+        if (snapshot.matches(ifNoneMatch, gzip)) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        headers.setContentType(MediaType.parseMediaType(snapshot.getContentType()));
+
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+            return new ResponseEntity<>(snapshot.getGzip(), headers, HttpStatus.OK);
+        }
+
+        return new ResponseEntity<>(snapshot.getBody(), headers, HttpStatus.OK);
+    }
+
+    private HttpHeaders getJsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        return headers;
+    }
+
+    // Lets clients cache the response until the dataset's next scheduled refresh
+    private CacheControl getCacheControl(ResponseSnapshot snapshot) {
+        Instant nextRefresh = snapshot.getNextRefresh();
+
+        if (nextRefresh == null) {
+            return CacheControl.noCache();
+        }
+
+        long seconds = Duration.between(Instant.now(), nextRefresh).getSeconds();
+
+        // Refresh overdue (e.g., upstream failure) -- revalidate on every request until the next snapshot
+        if (seconds <= 0) {
+            return CacheControl.noCache();
+        }
+
+        return CacheControl.maxAge(Duration.ofSeconds(seconds));
+    }
+
+    // Checks whether the Accept header explicitly lists the binary market data format (wildcards keep the JSON default)
+    private boolean acceptsBinary(String accept) {
+        if (accept == null || accept.isEmpty()) {
+            return false;
+        }
+
+        try {
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                if (mediaType.getQualityValue() > 0 && mediaType.equalsTypeAndSubtype(binaryMediaType)) {
+                    return true;
+                }
+            }
+        } catch (InvalidMediaTypeException ignored) {
+        }
+
+        return false;
+    }
+
+    // Checks whether the Accept-Encoding header lists gzip (or '*') without a quality value of 0
+    private boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return false;
+        }
+
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim();
+
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+
+            // Coding is acceptable unless explicitly disabled with q=0
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException ignored) {
+                        return false;
+                    }
+                }
+            }
 
-        Response<List<NewsEntity>> response = new Response<>(lastUpdated, data);
+            return true;
+        }
 
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return false;
     }
 }
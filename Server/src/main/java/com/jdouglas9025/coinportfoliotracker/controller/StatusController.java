@@ -0,0 +1,48 @@
+package com.jdouglas9025.coinportfoliotracker.controller;
+
+import com.jdouglas9025.coinportfoliotracker.entity.status.RefreshJobStatus;
+import com.jdouglas9025.coinportfoliotracker.entity.status.StartupStatus;
+import com.jdouglas9025.coinportfoliotracker.scheduler.RefreshScheduler;
+import com.jdouglas9025.coinportfoliotracker.startup.StartupTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// Operational endpoints for monitoring the server (not used by the app)
+@RestController
+@RequestMapping("/status")
+public class StatusController {
+    private final RefreshScheduler refreshScheduler;
+    private final StartupTracker startupTracker;
+
+    @Autowired
+    public StatusController(RefreshScheduler refreshScheduler, StartupTracker startupTracker) {
+        this.refreshScheduler = refreshScheduler;
+        this.startupTracker = startupTracker;
+    }
+
+    // Liveness probe -- the server is up (datasets may still be loading)
+    @GetMapping("/live")
+    public ResponseEntity<Void> getLiveness() {
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    // Readiness probe -- 503 until the core datasets (market and global data) are live, with the startup time of each step
+    @GetMapping("/ready")
+    public ResponseEntity<StartupStatus> getReadiness() {
+        StartupStatus status = new StartupStatus(startupTracker.isReady(), startupTracker.getReadyMillis(), startupTracker.getCompletedSteps());
+
+        return new ResponseEntity<>(status, startupTracker.isReady() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    // Returns the state of each background refresh job (e.g., running, last duration, last success)
+    @GetMapping("/refresh")
+    public ResponseEntity<List<RefreshJobStatus>> getRefreshStatus() {
+        return new ResponseEntity<>(refreshScheduler.getStatuses(), HttpStatus.OK);
+    }
+}
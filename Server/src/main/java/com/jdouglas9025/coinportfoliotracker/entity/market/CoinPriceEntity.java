@@ -0,0 +1,67 @@
+package com.jdouglas9025.coinportfoliotracker.entity.market;
+
+// Price-related subset of a coin entity sent in market data deltas
+// Field names match CoinEntity so clients can merge the values into their existing coins
+public class CoinPriceEntity {
+    public String id;
+    public Double currentPrice;
+    public Double marketCap;
+    public Integer marketCapRank;
+    public Double fullyDilutedValuation;
+    public Double totalVolume;
+    public Double high24H;
+    public Double low24H;
+    public Double priceChange24H;
+    public Double priceChangePercentage24H;
+    public Double marketCapChange24H;
+    public Double marketCapChangePercentage24H;
+    public Double circulatingSupply;
+    public Double totalSupply;
+    public Double maxSupply;
+    public Double ath;
+    public Double athChangePercentage;
+    public String athDate;
+    public Double atl;
+    public Double atlChangePercentage;
+    public String atlDate;
+    public Double priceChangePercentage7D;
+    public Double priceChangePercentage14D;
+    public Double priceChangePercentage30D;
+    public Double priceChangePercentage1Y;
+    // Only included when the sparkline changed since the requested version
+    public SparklineIn7D sparklineIn7D;
+    public String sparklineLastUpdated;
+
+    public CoinPriceEntity(CoinEntity coin, boolean includeSparkline) {
+        this.id = coin.id;
+        this.currentPrice = coin.currentPrice;
+        this.marketCap = coin.marketCap;
+        this.marketCapRank = coin.marketCapRank;
+        this.fullyDilutedValuation = coin.fullyDilutedValuation;
+        this.totalVolume = coin.totalVolume;
+        this.high24H = coin.high24H;
+        this.low24H = coin.low24H;
+        this.priceChange24H = coin.priceChange24H;
+        this.priceChangePercentage24H = coin.priceChangePercentage24H;
+        this.marketCapChange24H = coin.marketCapChange24H;
+        this.marketCapChangePercentage24H = coin.marketCapChangePercentage24H;
+        this.circulatingSupply = coin.circulatingSupply;
+        this.totalSupply = coin.totalSupply;
+        this.maxSupply = coin.maxSupply;
+        this.ath = coin.ath;
+        this.athChangePercentage = coin.athChangePercentage;
+        this.athDate = coin.athDate;
+        this.atl = coin.atl;
+        this.atlChangePercentage = coin.atlChangePercentage;
+        this.atlDate = coin.atlDate;
+        this.priceChangePercentage7D = coin.priceChangePercentage7D;
+        this.priceChangePercentage14D = coin.priceChangePercentage14D;
+        this.priceChangePercentage30D = coin.priceChangePercentage30D;
+        this.priceChangePercentage1Y = coin.priceChangePercentage1Y;
+
+        if (includeSparkline) {
+            this.sparklineIn7D = coin.sparklineIn7D;
+            this.sparklineLastUpdated = coin.sparklineLastUpdated;
+        }
+    }
+}
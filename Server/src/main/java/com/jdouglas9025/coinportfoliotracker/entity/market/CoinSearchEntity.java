@@ -0,0 +1,18 @@
+package com.jdouglas9025.coinportfoliotracker.entity.market;
+
+// Lightweight coin entry returned by the coin search endpoint
+public class CoinSearchEntity {
+    public String id;
+    public String symbol;
+    public String name;
+    public String image;
+    public Integer marketCapRank;
+
+    public CoinSearchEntity(String id, String symbol, String name, String image, Integer marketCapRank) {
+        this.id = id;
+        this.symbol = symbol;
+        this.name = name;
+        this.image = image;
+        this.marketCapRank = marketCapRank;
+    }
+}
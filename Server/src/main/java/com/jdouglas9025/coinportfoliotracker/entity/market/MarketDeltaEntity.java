@@ -0,0 +1,26 @@
+package com.jdouglas9025.coinportfoliotracker.entity.market;
+
+import java.util.List;
+
+// Changes to the market data between a client's version and the current version
+// If the client's version is no longer retained, 'full' is true and 'added' holds every coin
+public class MarketDeltaEntity {
+    public Long version;
+    public Long sinceVersion;
+    public Boolean full;
+    // Coins present in both versions whose price data changed
+    public List<CoinPriceEntity> changed;
+    // Coins new to the top coins since the client's version
+    public List<CoinEntity> added;
+    // Ids of coins that are no longer in the top coins
+    public List<String> removed;
+
+    public MarketDeltaEntity(Long version, Long sinceVersion, Boolean full, List<CoinPriceEntity> changed, List<CoinEntity> added, List<String> removed) {
+        this.version = version;
+        this.sinceVersion = sinceVersion;
+        this.full = full;
+        this.changed = changed;
+        this.added = added;
+        this.removed = removed;
+    }
+}
@@ -0,0 +1,19 @@
+package com.jdouglas9025.coinportfoliotracker.entity.market;
+
+// Recorded price history for a single coin -- values at the same index belong to the same sample
+public class PriceHistoryEntity {
+    public String id;
+    // Sample times (epoch milliseconds)
+    public long[] timestamps;
+    public double[] prices;
+    public Double[] marketCaps;
+    public Double[] totalVolumes;
+
+    public PriceHistoryEntity(String id, long[] timestamps, double[] prices, Double[] marketCaps, Double[] totalVolumes) {
+        this.id = id;
+        this.timestamps = timestamps;
+        this.prices = prices;
+        this.marketCaps = marketCaps;
+        this.totalVolumes = totalVolumes;
+    }
+}
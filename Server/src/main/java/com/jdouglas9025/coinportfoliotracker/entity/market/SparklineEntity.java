@@ -0,0 +1,14 @@
+package com.jdouglas9025.coinportfoliotracker.entity.market;
+
+// 7-day price sparkline for a single coin, optionally downsampled to fewer points
+public class SparklineEntity {
+    public String id;
+    public String sparklineLastUpdated;
+    public double[] price;
+
+    public SparklineEntity(String id, String sparklineLastUpdated, double[] price) {
+        this.id = id;
+        this.sparklineLastUpdated = sparklineLastUpdated;
+        this.price = price;
+    }
+}
@@ -1,11 +1,19 @@
 package com.jdouglas9025.coinportfoliotracker.entity.news;
 
+import java.util.Arrays;
+
 public class NewsEntity {
     public String title;
     public String publishedDate;
     public String url;
     public String publisherName;
     public String imageUrl;
+    // Story this article covers -- near-duplicate articles from other publishers share the id, and only this one is listed
+    public Long clusterId;
+    // Number of articles covering the story (including this one)
+    public Integer clusterSize;
+    // Coins mentioned in the headline (by name or ticker symbol)
+    public String[] coinIds;
 
     public NewsEntity(String title, String publishedDate, String url, String publisherName, String imageUrl) {
         this.title = title;
@@ -23,6 +31,9 @@ public class NewsEntity {
                 ", url='" + url + '\'' +
                 ", publisherName='" + publisherName + '\'' +
                 ", imageUrl='" + imageUrl + '\'' +
+                ", clusterId=" + clusterId +
+                ", clusterSize=" + clusterSize +
+                ", coinIds=" + Arrays.toString(coinIds) +
                 '}';
     }
 }
@@ -2,7 +2,7 @@ package com.jdouglas9025.coinportfoliotracker.entity.news.containers;
 
 import com.google.gson.annotations.SerializedName;
 
-// Represents a news entity returned from python script execution
+// Represents a news article returned from a news source
 public class RawNewsEntity {
     public String title;
     // High-level overview
@@ -0,0 +1,33 @@
+package com.jdouglas9025.coinportfoliotracker.entity.status;
+
+// Point-in-time view of a refresh job's state for the status endpoint
+public class RefreshJobStatus {
+    public String name;
+    public Boolean running;
+    // Start time of the current run (if running) or the last run
+    public String lastStarted;
+    public Long lastDurationMillis;
+    // Last run that published new data
+    public String lastSuccess;
+    // Details of failures are only logged -- this endpoint is public
+    public String lastFailure;
+    public Long runs;
+    public Long failures;
+    public Long timeouts;
+    // Ticks that fired while a run was still in progress (merged into that run rather than started again)
+    public Long coalescedTicks;
+
+    public RefreshJobStatus(String name, Boolean running, String lastStarted, Long lastDurationMillis, String lastSuccess,
+                            String lastFailure, Long runs, Long failures, Long timeouts, Long coalescedTicks) {
+        this.name = name;
+        this.running = running;
+        this.lastStarted = lastStarted;
+        this.lastDurationMillis = lastDurationMillis;
+        this.lastSuccess = lastSuccess;
+        this.lastFailure = lastFailure;
+        this.runs = runs;
+        this.failures = failures;
+        this.timeouts = timeouts;
+        this.coalescedTicks = coalescedTicks;
+    }
+}
@@ -0,0 +1,18 @@
+package com.jdouglas9025.coinportfoliotracker.entity.status;
+
+import java.util.Map;
+
+// Point-in-time view of the server's startup for the readiness endpoint
+public class StartupStatus {
+    public Boolean ready;
+    // Milliseconds from JVM start until the server was ready (null if not ready yet)
+    public Long readyMillis;
+    // Key: startup step, value: milliseconds from JVM start until the step finished
+    public Map<String, Long> steps;
+
+    public StartupStatus(Boolean ready, Long readyMillis, Map<String, Long> steps) {
+        this.ready = ready;
+        this.readyMillis = readyMillis;
+        this.steps = steps;
+    }
+}
@@ -0,0 +1,372 @@
+package com.jdouglas9025.coinportfoliotracker.history;
+
+import com.jdouglas9025.coinportfoliotracker.entity.market.PriceHistoryEntity;
+import com.jdouglas9025.coinportfoliotracker.market.MarketColumn;
+import com.jdouglas9025.coinportfoliotracker.market.MarketColumnStore;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Append-only price history of every market data refresh, kept in memory-mapped files rather than on the heap
+//
+// Layout (all in the history directory):
+// - segment-NNNNNN.dat: frames written back to back -- one frame per refresh
+//   frame = [timestamp (long)][record count (int)][records sorted by coin slot]
+//   record = [coin slot (int)][price (double)][market cap (double)][total volume (double)] -- missing values are NaN
+// - frames.idx: one entry per frame [timestamp (long)][segment (int)][offset (int)] -- the index by time (dense: one entry per frame)
+// - coins.txt: one coin id per line (line number = coin slot)
+//
+// Only the index and the coin slots are held in memory (a few hundred KB per year of samples)
+// Queries binary search the index for each sample time (jumping 'step' ahead each time, so a long range at a coarse step only
+// touches the frames it returns), then binary search each selected frame for the coin's record
+public class PriceHistoryStore {
+    private static final int frameHeaderSize = Long.BYTES + Integer.BYTES;
+    private static final int recordSize = Integer.BYTES + 3 * Double.BYTES;
+    // Position of each value within a record
+    private static final int priceOffset = Integer.BYTES;
+    private static final int marketCapOffset = priceOffset + Double.BYTES;
+    private static final int totalVolumeOffset = marketCapOffset + Double.BYTES;
+    private static final int indexEntrySize = Long.BYTES + 2 * Integer.BYTES;
+    // Segments stay well under the 2 GB limit of a single mapping (about 7,000 frames of 1,250 coins each)
+    private static final int segmentCapacity = 256 * 1024 * 1024;
+
+    private final Path directory;
+    private final Path indexPath;
+    private final Path coinsPath;
+
+    // Key: coin id, value: slot
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    // Mapped segments (only the last one is appended to)
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+
+    // Frame index published to readers as a whole, so a query never sees a frame that is still being written
+    private volatile FrameIndex frameIndex;
+    // Next write position in the last segment
+    private int writeOffset;
+
+    private PriceHistoryStore(Path directory) {
+        this.directory = directory;
+        this.indexPath = directory.resolve("frames.idx");
+        this.coinsPath = directory.resolve("coins.txt");
+    }
+
+    // Opens (or creates) the store in the directory and loads the frame index and coin slots
+    public static PriceHistoryStore open(Path directory) throws IOException {
+        PriceHistoryStore store = new PriceHistoryStore(directory);
+        store.load();
+
+        return store;
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(directory);
+
+        if (Files.exists(coinsPath)) {
+            List<String> ids = Files.readAllLines(coinsPath, StandardCharsets.UTF_8);
+
+            for (int i = 0; i < ids.size(); i++) {
+                slots.put(ids.get(i), i);
+            }
+        }
+
+        // Drop a partially written entry left by a crash
+        long indexSize = Files.exists(indexPath) ? Files.size(indexPath) : 0;
+        int entries = (int) (indexSize / indexEntrySize);
+
+        if (indexSize % indexEntrySize != 0) {
+            try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.WRITE)) {
+                channel.truncate((long) entries * indexEntrySize);
+            }
+        }
+
+        int capacity = Math.max(entries, 64);
+        long[] timestamps = new long[capacity];
+        int[] segmentNumbers = new int[capacity];
+        int[] offsets = new int[capacity];
+
+        if (entries > 0) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+
+            for (int i = 0; i < entries; i++) {
+                timestamps[i] = buffer.getLong();
+                segmentNumbers[i] = buffer.getInt();
+                offsets[i] = buffer.getInt();
+            }
+        }
+
+        FrameIndex index = new FrameIndex(timestamps, segmentNumbers, offsets, entries);
+
+        int segmentCount = entries == 0 ? 1 : index.segments[entries - 1] + 1;
+        for (int i = 0; i < segmentCount; i++) {
+            segments.add(mapSegment(i));
+        }
+
+        // Frames after the last indexed one (e.g., written just before a crash) are overwritten by the next append
+        if (entries > 0) {
+            MappedByteBuffer last = segments.get(segmentCount - 1);
+            int offset = index.offsets[entries - 1];
+
+            writeOffset = offset + frameHeaderSize + last.getInt(offset + Long.BYTES) * recordSize;
+        }
+
+        frameIndex = index;
+    }
+
+    // Appends one frame with the price, market cap, and volume of every coin that has a price
+    // Only called from the market data refresh, which never runs concurrently with itself
+    public synchronized void append(long timestamp, MarketColumnStore coins) throws IOException {
+        FrameIndex index = frameIndex;
+        if (index.count > 0 && timestamp <= index.timestamps[index.count - 1]) {
+            // Frames must stay in time order for the index to be searchable
+            return;
+        }
+
+        // Records sorted by slot so a coin can be found in a frame with a binary search
+        List<long[]> records = new ArrayList<>();
+        List<String> newIds = new ArrayList<>();
+
+        for (int i = 0; i < coins.size(); i++) {
+            Double price = coins.getValue(MarketColumn.CURRENT_PRICE, i);
+            String coinId = coins.getId(i);
+
+            if (price == null || coinId == null) {
+                continue;
+            }
+
+            Integer slot = slots.get(coinId);
+            if (slot == null) {
+                slot = slots.size();
+                slots.put(coinId, slot);
+                newIds.add(coinId);
+            }
+
+            records.add(new long[]{slot, i});
+        }
+
+        if (records.isEmpty()) {
+            return;
+        }
+
+        records.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        // New coins are recorded before any frame refers to their slots
+        if (!newIds.isEmpty()) {
+            try (BufferedWriter writer = Files.newBufferedWriter(coinsPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (String coinId : newIds) {
+                    writer.write(coinId);
+                    writer.write('\n');
+                }
+            } catch (IOException e) {
+                // Give the slots out again next time rather than leave them unrecorded
+                for (String coinId : newIds) {
+                    slots.remove(coinId);
+                }
+
+                throw e;
+            }
+        }
+
+        int frameSize = frameHeaderSize + records.size() * recordSize;
+        if (writeOffset + frameSize > segmentCapacity) {
+            segments.add(mapSegment(segments.size()));
+            writeOffset = 0;
+        }
+
+        int segment = segments.size() - 1;
+        int offset = writeOffset;
+        MappedByteBuffer buffer = segments.get(segment);
+
+        buffer.putLong(offset, timestamp);
+        buffer.putInt(offset + Long.BYTES, records.size());
+
+        int position = offset + frameHeaderSize;
+        for (long[] record : records) {
+            int coin = (int) record[1];
+
+            buffer.putInt(position, (int) record[0]);
+            buffer.putDouble(position + priceOffset, coins.getValue(MarketColumn.CURRENT_PRICE, coin));
+            buffer.putDouble(position + marketCapOffset, orNaN(coins.getValue(MarketColumn.MARKET_CAP, coin)));
+            buffer.putDouble(position + totalVolumeOffset, orNaN(coins.getValue(MarketColumn.TOTAL_VOLUME, coin)));
+
+            position += recordSize;
+        }
+
+        buffer.force(offset, frameSize);
+
+        // Frame is durable, so index it
+        ByteBuffer entry = ByteBuffer.allocate(indexEntrySize);
+        entry.putLong(timestamp).putInt(segment).putInt(offset).flip();
+
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            while (entry.hasRemaining()) {
+                channel.write(entry);
+            }
+
+            channel.force(false);
+        }
+
+        writeOffset = offset + frameSize;
+        frameIndex = index.append(timestamp, segment, offset);
+    }
+
+    // Returns the coin's history between 'from' and 'to' (inclusive, epoch milliseconds) with samples at least 'step' apart
+    // Returns null if the coin has never been recorded
+    public PriceHistoryEntity query(String coinId, long from, long to, long step) {
+        Integer slot = slots.get(coinId);
+        if (slot == null) {
+            return null;
+        }
+
+        // Segments are added before the index refers to them, so every indexed frame is mapped
+        FrameIndex index = frameIndex;
+
+        long[] timestamps = new long[16];
+        double[] prices = new double[16];
+        Double[] marketCaps = new Double[16];
+        Double[] totalVolumes = new Double[16];
+        int count = 0;
+
+        int i = index.firstAtOrAfter(from);
+
+        while (i < index.count && index.timestamps[i] <= to) {
+            long timestamp = index.timestamps[i];
+
+            // Read straight from the mapping -- only the matching record is touched
+            MappedByteBuffer buffer = segments.get(index.segments[i]);
+            int record = findRecord(buffer, index.offsets[i], slot);
+
+            // Coin was not in that refresh -- try the next frame
+            if (record == -1) {
+                i++;
+                continue;
+            }
+
+            if (count == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, count * 2);
+                prices = Arrays.copyOf(prices, count * 2);
+                marketCaps = Arrays.copyOf(marketCaps, count * 2);
+                totalVolumes = Arrays.copyOf(totalVolumes, count * 2);
+            }
+
+            timestamps[count] = timestamp;
+            prices[count] = buffer.getDouble(record + priceOffset);
+            marketCaps[count] = orNull(buffer.getDouble(record + marketCapOffset));
+            totalVolumes[count] = orNull(buffer.getDouble(record + totalVolumeOffset));
+            count++;
+
+            // Jump straight to the first frame at least 'step' later (saturating, so a huge step ends the query)
+            long nextTimestamp = timestamp > Long.MAX_VALUE - step ? Long.MAX_VALUE : timestamp + step;
+            i = Math.max(i + 1, index.firstAtOrAfter(nextTimestamp));
+        }
+
+        return new PriceHistoryEntity(coinId, Arrays.copyOf(timestamps, count), Arrays.copyOf(prices, count),
+                Arrays.copyOf(marketCaps, count), Arrays.copyOf(totalVolumes, count));
+    }
+
+    // Returns the position of the coin's record in the frame, or -1 if the coin was not in that refresh
+    private int findRecord(MappedByteBuffer buffer, int frameOffset, int slot) {
+        int records = buffer.getInt(frameOffset + Long.BYTES);
+        int start = frameOffset + frameHeaderSize;
+
+        int low = 0;
+        int high = records - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int value = buffer.getInt(start + middle * recordSize);
+
+            if (value < slot) {
+                low = middle + 1;
+            } else if (value > slot) {
+                high = middle - 1;
+            } else {
+                return start + middle * recordSize;
+            }
+        }
+
+        return -1;
+    }
+
+    private MappedByteBuffer mapSegment(int segment) throws IOException {
+        Path path = directory.resolve(String.format("segment-%06d.dat", segment));
+
+        // Mapping the full capacity up front creates a sparse file, so unused space takes no disk
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentCapacity);
+        }
+    }
+
+    private double orNaN(Double value) {
+        return value == null ? Double.NaN : value;
+    }
+
+    private Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    // Timestamp and location of each frame in time order
+    // Appends fill spare capacity in place and publish a new instance with a larger count, so readers holding
+    // an older instance never see entries past their count
+    private static class FrameIndex {
+        private final long[] timestamps;
+        private final int[] segments;
+        private final int[] offsets;
+        private final int count;
+
+        private FrameIndex(long[] timestamps, int[] segments, int[] offsets, int count) {
+            this.timestamps = timestamps;
+            this.segments = segments;
+            this.offsets = offsets;
+            this.count = count;
+        }
+
+        private FrameIndex append(long timestamp, int segment, int offset) {
+            FrameIndex target = this;
+
+            if (count == timestamps.length) {
+                int capacity = timestamps.length * 2;
+                target = new FrameIndex(Arrays.copyOf(timestamps, capacity), Arrays.copyOf(segments, capacity),
+                        Arrays.copyOf(offsets, capacity), count);
+            }
+
+            target.timestamps[count] = timestamp;
+            target.segments[count] = segment;
+            target.offsets[count] = offset;
+
+            return new FrameIndex(target.timestamps, target.segments, target.offsets, count + 1);
+        }
+
+        // Position of the first frame at or after the timestamp
+        private int firstAtOrAfter(long timestamp) {
+            int low = 0;
+            int high = count;
+
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+
+                if (timestamps[middle] < timestamp) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.jdouglas9025.coinportfoliotracker.market;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// In-memory search index over coin ids, symbols, and names -- built once per market data refresh
+// Short queries are answered from a sorted prefix table; longer queries also use trigram posting lists
+// Neither path scans every coin, so lookups stay fast as the number of coins grows
+public class CoinSearchIndex {
+    // Result tiers (lower is better)
+    private static final int exactSymbolTier = 0;
+    private static final int prefixTier = 1;
+    private static final int substringTier = 2;
+
+    // Start of the response body ('{"lastUpdated":...,"data":[')
+    private final byte[] prefix;
+    // Encoded search entity for each coin (same order as the source list)
+    private final byte[][] encodedCoins;
+    // Lowercase fields for each coin (coins are in market cap order, so position doubles as rank)
+    private final String[] ids;
+    private final String[] symbols;
+    private final String[] names;
+    // Every searchable key (id, symbol, name, and each word of the name) in sorted order with its coin position
+    private final String[] prefixKeys;
+    private final int[] prefixPositions;
+    // Key: trigram packed into a long, value: ascending coin positions containing it
+    private final Map<Long, int[]> trigrams = new HashMap<>();
+
+    public CoinSearchIndex(byte[] prefix, MarketColumnStore coins, byte[][] encodedCoins) {
+        this.prefix = prefix;
+        this.encodedCoins = encodedCoins;
+
+        int size = coins.size();
+        ids = new String[size];
+        symbols = new String[size];
+        names = new String[size];
+
+        List<PrefixEntry> entries = new ArrayList<>();
+        Map<Long, List<Integer>> postings = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            ids[i] = normalize(coins.getId(i));
+            symbols[i] = normalize(coins.getSymbol(i));
+            names[i] = normalize(coins.getName(i));
+
+            addPrefixEntry(entries, ids[i], i);
+            addPrefixEntry(entries, symbols[i], i);
+            addPrefixEntry(entries, names[i], i);
+
+            // Allow prefix matches on later words (e.g., 'cash' for 'Bitcoin Cash')
+            if (!names[i].isEmpty()) {
+                String[] words = names[i].split("[\\s\\-_.()]+");
+                if (words.length > 1) {
+                    for (String word : words) {
+                        addPrefixEntry(entries, word, i);
+                    }
+                }
+            }
+
+            addTrigrams(postings, ids[i], i);
+            addTrigrams(postings, symbols[i], i);
+            addTrigrams(postings, names[i], i);
+        }
+
+        entries.sort((a, b) -> a.key.compareTo(b.key));
+
+        prefixKeys = new String[entries.size()];
+        prefixPositions = new int[entries.size()];
+
+        for (int i = 0; i < entries.size(); i++) {
+            prefixKeys[i] = entries.get(i).key;
+            prefixPositions[i] = entries.get(i).position;
+        }
+
+        for (Map.Entry<Long, List<Integer>> entry : postings.entrySet()) {
+            List<Integer> positions = entry.getValue();
+            int[] result = new int[positions.size()];
+
+            for (int i = 0; i < result.length; i++) {
+                result[i] = positions.get(i);
+            }
+
+            trigrams.put(entry.getKey(), result);
+        }
+    }
+
+    // Returns an encoded response with up to 'limit' matches ranked by exact symbol match, then prefix match, then market cap rank
+    public byte[] search(String query, int limit) {
+        String term = normalize(query);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.writeBytes(prefix);
+
+        if (!term.isEmpty()) {
+            int[] results = findMatches(term, limit);
+
+            for (int i = 0; i < results.length; i++) {
+                if (i > 0) {
+                    output.write(',');
+                }
+
+                output.writeBytes(encodedCoins[results[i]]);
+            }
+        }
+
+        output.write(']');
+        output.write('}');
+
+        return output.toByteArray();
+    }
+
+    private int[] findMatches(String term, int limit) {
+        // Key: candidate position, value: best tier found for it
+        // Only candidates are tracked, so a query costs the keys and postings it touches rather than the number of coins
+        Map<Integer, Integer> tiers = new HashMap<>();
+
+        // Prefix matches -- binary search for the first key >= term, then walk while keys start with term
+        int start = Arrays.binarySearch(prefixKeys, term);
+        if (start < 0) {
+            start = -start - 1;
+        }
+
+        for (int i = start; i < prefixKeys.length && prefixKeys[i].startsWith(term); i++) {
+            int position = prefixPositions[i];
+            int tier = symbols[position].equals(term) ? exactSymbolTier : prefixTier;
+
+            tiers.merge(position, tier, Math::min);
+        }
+
+        // Substring matches (only possible to index with 3+ characters)
+        if (term.length() >= 3) {
+            for (int position : intersectTrigrams(term)) {
+                if (tiers.containsKey(position)) {
+                    continue;
+                }
+
+                // Trigrams may come from different fields, so confirm the full term appears
+                if (ids[position].contains(term) || symbols[position].contains(term) || names[position].contains(term)) {
+                    tiers.put(position, substringTier);
+                }
+            }
+        }
+
+        // Position is market cap order, so it breaks ties within a tier by rank
+        List<Integer> candidates = new ArrayList<>(tiers.keySet());
+        candidates.sort((a, b) -> {
+            int tierA = tiers.get(a);
+            int tierB = tiers.get(b);
+
+            return tierA != tierB ? Integer.compare(tierA, tierB) : Integer.compare(a, b);
+        });
+
+        int count = Math.min(limit, candidates.size());
+        int[] result = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            result[i] = candidates.get(i);
+        }
+
+        return result;
+    }
+
+    // Returns ascending coin positions containing every trigram of the term
+    private int[] intersectTrigrams(String term) {
+        int[] result = null;
+
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            int[] postings = trigrams.get(packTrigram(term, i));
+
+            if (postings == null) {
+                return new int[0];
+            }
+
+            result = result == null ? postings : intersect(result, postings);
+
+            if (result.length == 0) {
+                break;
+            }
+        }
+
+        return result == null ? new int[0] : result;
+    }
+
+    private int[] intersect(int[] first, int[] second) {
+        int[] result = new int[Math.min(first.length, second.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < first.length && j < second.length) {
+            if (first[i] == second[j]) {
+                result[count++] = first[i];
+                i++;
+                j++;
+            } else if (first[i] < second[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+
+    private void addPrefixEntry(List<PrefixEntry> entries, String key, int position) {
+        if (!key.isEmpty()) {
+            entries.add(new PrefixEntry(key, position));
+        }
+    }
+
+    private void addTrigrams(Map<Long, List<Integer>> postings, String value, int position) {
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            List<Integer> positions = postings.computeIfAbsent(packTrigram(value, i), key -> new ArrayList<>());
+
+            // Coins are added in order, so only the last entry can be a duplicate
+            if (positions.isEmpty() || positions.get(positions.size() - 1) != position) {
+                positions.add(position);
+            }
+        }
+    }
+
+    private long packTrigram(String value, int start) {
+        return ((long) value.charAt(start) << 32) | ((long) value.charAt(start + 1) << 16) | value.charAt(start + 2);
+    }
+
+    private String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class PrefixEntry {
+        private final String key;
+        private final int position;
+
+        private PrefixEntry(String key, int position) {
+            this.key = key;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.jdouglas9025.coinportfoliotracker.market;
+
+import com.jdouglas9025.coinportfoliotracker.entity.market.CoinEntity;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+// Numeric coin fields stored as primitive columns in the market column store
+// Integral fields (rank, block time) are stored as doubles too -- both are far below 2^53, so no precision is lost
+public enum MarketColumn {
+    CURRENT_PRICE("currentPrice", false, coin -> coin.currentPrice, (coin, value) -> coin.currentPrice = value),
+    MARKET_CAP("marketCap", false, coin -> coin.marketCap, (coin, value) -> coin.marketCap = value),
+    MARKET_CAP_RANK("marketCapRank", true, coin -> coin.marketCapRank,
+            (coin, value) -> coin.marketCapRank = value == null ? null : value.intValue()),
+    FULLY_DILUTED_VALUATION("fullyDilutedValuation", false, coin -> coin.fullyDilutedValuation, (coin, value) -> coin.fullyDilutedValuation = value),
+    TOTAL_VOLUME("totalVolume", false, coin -> coin.totalVolume, (coin, value) -> coin.totalVolume = value),
+    HIGH_24H("high24H", false, coin -> coin.high24H, (coin, value) -> coin.high24H = value),
+    LOW_24H("low24H", false, coin -> coin.low24H, (coin, value) -> coin.low24H = value),
+    PRICE_CHANGE_24H("priceChange24H", false, coin -> coin.priceChange24H, (coin, value) -> coin.priceChange24H = value),
+    PRICE_CHANGE_PERCENTAGE_24H("priceChangePercentage24H", false, coin -> coin.priceChangePercentage24H,
+            (coin, value) -> coin.priceChangePercentage24H = value),
+    MARKET_CAP_CHANGE_24H("marketCapChange24H", false, coin -> coin.marketCapChange24H, (coin, value) -> coin.marketCapChange24H = value),
+    MARKET_CAP_CHANGE_PERCENTAGE_24H("marketCapChangePercentage24H", false, coin -> coin.marketCapChangePercentage24H,
+            (coin, value) -> coin.marketCapChangePercentage24H = value),
+    CIRCULATING_SUPPLY("circulatingSupply", false, coin -> coin.circulatingSupply, (coin, value) -> coin.circulatingSupply = value),
+    TOTAL_SUPPLY("totalSupply", false, coin -> coin.totalSupply, (coin, value) -> coin.totalSupply = value),
+    MAX_SUPPLY("maxSupply", false, coin -> coin.maxSupply, (coin, value) -> coin.maxSupply = value),
+    ATH("ath", false, coin -> coin.ath, (coin, value) -> coin.ath = value),
+    ATH_CHANGE_PERCENTAGE("athChangePercentage", false, coin -> coin.athChangePercentage, (coin, value) -> coin.athChangePercentage = value),
+    ATL("atl", false, coin -> coin.atl, (coin, value) -> coin.atl = value),
+    ATL_CHANGE_PERCENTAGE("atlChangePercentage", false, coin -> coin.atlChangePercentage, (coin, value) -> coin.atlChangePercentage = value),
+    PRICE_CHANGE_PERCENTAGE_7D("priceChangePercentage7D", false, coin -> coin.priceChangePercentage7D,
+            (coin, value) -> coin.priceChangePercentage7D = value),
+    PRICE_CHANGE_PERCENTAGE_14D("priceChangePercentage14D", false, coin -> coin.priceChangePercentage14D,
+            (coin, value) -> coin.priceChangePercentage14D = value),
+    PRICE_CHANGE_PERCENTAGE_30D("priceChangePercentage30D", false, coin -> coin.priceChangePercentage30D,
+            (coin, value) -> coin.priceChangePercentage30D = value),
+    PRICE_CHANGE_PERCENTAGE_1Y("priceChangePercentage1Y", false, coin -> coin.priceChangePercentage1Y,
+            (coin, value) -> coin.priceChangePercentage1Y = value),
+    BLOCK_TIME("blockTime", true, coin -> coin.blockTime,
+            (coin, value) -> coin.blockTime = value == null ? null : value.longValue()),
+    POSITIVE_SENTIMENT_PERCENTAGE("positiveSentimentPercentage", false, coin -> coin.positiveSentimentPercentage,
+            (coin, value) -> coin.positiveSentimentPercentage = value);
+
+    // Field name in encoded responses (same as the CoinEntity field)
+    private final String fieldName;
+    // Written without a decimal point (e.g., 1 rather than 1.0) to match the boxed Integer/Long field
+    private final boolean integral;
+    private final Function<CoinEntity, Number> getter;
+    private final BiConsumer<CoinEntity, Double> setter;
+
+    MarketColumn(String fieldName, boolean integral, Function<CoinEntity, Number> getter, BiConsumer<CoinEntity, Double> setter) {
+        this.fieldName = fieldName;
+        this.integral = integral;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public boolean isIntegral() {
+        return integral;
+    }
+
+    public Double get(CoinEntity coin) {
+        Number value = getter.apply(coin);
+
+        return value == null ? null : value.doubleValue();
+    }
+
+    public void set(CoinEntity coin, Double value) {
+        setter.accept(coin, value);
+    }
+}
@@ -0,0 +1,683 @@
+package com.jdouglas9025.coinportfoliotracker.market;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.jdouglas9025.coinportfoliotracker.entity.market.CoinEntity;
+import com.jdouglas9025.coinportfoliotracker.entity.market.SparklineIn7D;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Struct-of-arrays copy of the market data retained between refreshes
+// Numeric fields are primitive double columns with a null bitmap, and every sparkline shares one contiguous array,
+// so a snapshot holds a few dozen arrays rather than ~200 boxed objects per coin
+// Coins keep their market cap order (position i is the same coin in every column)
+public class MarketColumnStore {
+    // Media type of the compact binary encoding written by writeBinary
+    public static final String binaryContentType = "application/vnd.coinportfolio.market-v1";
+    private static final byte[] binaryMagic = {'C', 'P', 'T', 'M'};
+    private static final int binaryFormatVersion = 1;
+
+    // Key: coin field name, in the order fields are written
+    private static final Map<String, FieldWriter> fieldWriters = buildFieldWriters();
+    // Projection used for full responses
+    private static final Projection allFields = new Projection(List.copyOf(fieldWriters.keySet()));
+
+    // Marks a null element inside a sparkline (real prices are never NaN)
+    private static final double missingPrice = Double.NaN;
+    // Image URLs share everything up to the coin's image id (e.g., 'https://coin-images.coingecko.com/coins/images/')
+    private static final String imagePathMarker = "/images/";
+
+    private final int size;
+
+    private final String[] ids;
+    private final String[] symbols;
+    private final String[] names;
+    private final String[] imagePrefixes;
+    private final String[] imageSuffixes;
+    private final String[] athDates;
+    private final String[] atlDates;
+    private final String[] sparklineLastUpdated;
+    private final String[] hashingAlgorithms;
+    private final String[] descriptions;
+    private final String[] homepageUrls;
+    private final String[] subredditUrls;
+    private final String[] genesisDates;
+    private final String[][] recommendedCoins;
+    // Key: coin id, value: position
+    private final Map<String, Integer> positions;
+
+    // Indexed by column ordinal, then coin position
+    private final double[][] columns;
+    // Bit set for each coin whose value is null (same indexing as columns)
+    private final long[][] nulls;
+
+    // Coin i's sparkline is sparklineValues[sparklineOffsets[i], sparklineOffsets[i + 1])
+    private final double[] sparklineValues;
+    private final int[] sparklineOffsets;
+    // Coins with no sparkline object, and coins with a sparkline object but no price list
+    private final long[] missingSparklines;
+    private final long[] missingSparklinePrices;
+
+    public MarketColumnStore(List<CoinEntity> coins) {
+        size = coins.size();
+
+        ids = new String[size];
+        symbols = new String[size];
+        names = new String[size];
+        imagePrefixes = new String[size];
+        imageSuffixes = new String[size];
+        athDates = new String[size];
+        atlDates = new String[size];
+        sparklineLastUpdated = new String[size];
+        hashingAlgorithms = new String[size];
+        descriptions = new String[size];
+        homepageUrls = new String[size];
+        subredditUrls = new String[size];
+        genesisDates = new String[size];
+        recommendedCoins = new String[size][];
+        positions = new HashMap<>();
+
+        MarketColumn[] columnTypes = MarketColumn.values();
+        columns = new double[columnTypes.length][size];
+        nulls = new long[columnTypes.length][bitmapLength(size)];
+
+        sparklineOffsets = new int[size + 1];
+        missingSparklines = new long[bitmapLength(size)];
+        missingSparklinePrices = new long[bitmapLength(size)];
+
+        // Repeated strings (dates, algorithms, URL prefixes, recommended ids) point at one shared instance
+        Map<String, String> pool = new HashMap<>();
+
+        int sparklineCount = 0;
+        for (CoinEntity coin : coins) {
+            if (coin.sparklineIn7D != null && coin.sparklineIn7D.price != null) {
+                sparklineCount += coin.sparklineIn7D.price.size();
+            }
+        }
+
+        sparklineValues = new double[sparklineCount];
+        int sparklinePosition = 0;
+
+        for (int i = 0; i < size; i++) {
+            CoinEntity coin = coins.get(i);
+
+            ids[i] = coin.id;
+            positions.putIfAbsent(coin.id, i);
+            symbols[i] = coin.symbol;
+            names[i] = coin.name;
+            athDates[i] = dedup(pool, coin.athDate);
+            atlDates[i] = dedup(pool, coin.atlDate);
+            sparklineLastUpdated[i] = dedup(pool, coin.sparklineLastUpdated);
+            hashingAlgorithms[i] = dedup(pool, coin.hashingAlgorithm);
+            descriptions[i] = coin.description;
+            homepageUrls[i] = coin.homepageUrl;
+            subredditUrls[i] = coin.subredditUrl;
+            genesisDates[i] = dedup(pool, coin.genesisDate);
+
+            if (coin.image != null) {
+                int split = coin.image.indexOf(imagePathMarker);
+                split = split == -1 ? 0 : split + imagePathMarker.length();
+
+                imagePrefixes[i] = dedup(pool, coin.image.substring(0, split));
+                imageSuffixes[i] = coin.image.substring(split);
+            }
+
+            if (coin.recommendedCoins != null) {
+                String[] recommendations = new String[coin.recommendedCoins.length];
+
+                for (int j = 0; j < recommendations.length; j++) {
+                    recommendations[j] = dedup(pool, coin.recommendedCoins[j]);
+                }
+
+                recommendedCoins[i] = recommendations;
+            }
+
+            for (MarketColumn column : columnTypes) {
+                Double value = column.get(coin);
+
+                if (value == null) {
+                    setBit(nulls[column.ordinal()], i);
+                } else {
+                    columns[column.ordinal()][i] = value;
+                }
+            }
+
+            sparklineOffsets[i] = sparklinePosition;
+
+            if (coin.sparklineIn7D == null) {
+                setBit(missingSparklines, i);
+            } else if (coin.sparklineIn7D.price == null) {
+                setBit(missingSparklinePrices, i);
+            } else {
+                for (Double price : coin.sparklineIn7D.price) {
+                    sparklineValues[sparklinePosition++] = price == null ? missingPrice : price;
+                }
+            }
+        }
+
+        sparklineOffsets[size] = sparklinePosition;
+    }
+
+    // Shares every column with the source except the sparklines
+    private MarketColumnStore(MarketColumnStore source, double[] sparklineValues, int[] sparklineOffsets,
+                              long[] missingSparklines, long[] missingSparklinePrices) {
+        size = source.size;
+        ids = source.ids;
+        symbols = source.symbols;
+        names = source.names;
+        imagePrefixes = source.imagePrefixes;
+        imageSuffixes = source.imageSuffixes;
+        athDates = source.athDates;
+        atlDates = source.atlDates;
+        sparklineLastUpdated = source.sparklineLastUpdated;
+        hashingAlgorithms = source.hashingAlgorithms;
+        descriptions = source.descriptions;
+        homepageUrls = source.homepageUrls;
+        subredditUrls = source.subredditUrls;
+        genesisDates = source.genesisDates;
+        recommendedCoins = source.recommendedCoins;
+        positions = source.positions;
+        columns = source.columns;
+        nulls = source.nulls;
+
+        this.sparklineValues = sparklineValues;
+        this.sparklineOffsets = sparklineOffsets;
+        this.missingSparklines = missingSparklines;
+        this.missingSparklinePrices = missingSparklinePrices;
+    }
+
+    // Returns a store with each sparkline downsampled to at most 'points' values (0 removes the sparklines)
+    public MarketColumnStore withSparklinePoints(int points) {
+        if (points == 0) {
+            long[] allMissing = new long[bitmapLength(size)];
+
+            for (int i = 0; i < size; i++) {
+                setBit(allMissing, i);
+            }
+
+            return new MarketColumnStore(this, new double[0], new int[size + 1], allMissing, new long[bitmapLength(size)]);
+        }
+
+        double[][] downsampled = new double[size][];
+        int total = 0;
+
+        for (int i = 0; i < size; i++) {
+            double[] sparkline = getSparkline(i);
+
+            if (sparkline != null) {
+                downsampled[i] = SparklineDownsampler.downsample(sparkline, points);
+                total += downsampled[i].length;
+            }
+        }
+
+        double[] values = new double[total];
+        int[] offsets = new int[size + 1];
+        int position = 0;
+
+        for (int i = 0; i < size; i++) {
+            offsets[i] = position;
+
+            if (downsampled[i] != null) {
+                System.arraycopy(downsampled[i], 0, values, position, downsampled[i].length);
+                position += downsampled[i].length;
+            }
+        }
+
+        offsets[size] = position;
+
+        return new MarketColumnStore(this, values, offsets, missingSparklines, missingSparklinePrices);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getId(int position) {
+        return ids[position];
+    }
+
+    public String getSymbol(int position) {
+        return symbols[position];
+    }
+
+    public String getName(int position) {
+        return names[position];
+    }
+
+    // Returns -1 if the coin is not in the store
+    public int indexOf(String coinId) {
+        return positions.getOrDefault(coinId, -1);
+    }
+
+    public String getSparklineLastUpdated(int position) {
+        return sparklineLastUpdated[position];
+    }
+
+    // Returns the coin's sparkline prices (without missing values), or null if the coin has no sparkline
+    public double[] getSparkline(int position) {
+        if (getBit(missingSparklines, position) || getBit(missingSparklinePrices, position)) {
+            return null;
+        }
+
+        int start = sparklineOffsets[position];
+        int end = sparklineOffsets[position + 1];
+
+        double[] result = new double[end - start];
+        int count = 0;
+
+        for (int i = start; i < end; i++) {
+            if (!Double.isNaN(sparklineValues[i])) {
+                result[count++] = sparklineValues[i];
+            }
+        }
+
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    public String getImage(int position) {
+        return imageSuffixes[position] == null ? null : imagePrefixes[position] + imageSuffixes[position];
+    }
+
+    // Returns null if the coin has no value for the column
+    public Double getValue(MarketColumn column, int position) {
+        if (getBit(nulls[column.ordinal()], position)) {
+            return null;
+        }
+
+        return columns[column.ordinal()][position];
+    }
+
+    // Rebuilds the coin as an entity (e.g., to reuse a coin from a page that failed on the next refresh)
+    public CoinEntity toCoinEntity(int position) {
+        CoinEntity coin = new CoinEntity();
+
+        coin.id = ids[position];
+        coin.symbol = symbols[position];
+        coin.name = names[position];
+        coin.image = getImage(position);
+        coin.athDate = athDates[position];
+        coin.atlDate = atlDates[position];
+        coin.sparklineLastUpdated = sparklineLastUpdated[position];
+        coin.hashingAlgorithm = hashingAlgorithms[position];
+        coin.description = descriptions[position];
+        coin.homepageUrl = homepageUrls[position];
+        coin.subredditUrl = subredditUrls[position];
+        coin.genesisDate = genesisDates[position];
+        coin.recommendedCoins = recommendedCoins[position];
+
+        for (MarketColumn column : MarketColumn.values()) {
+            column.set(coin, getValue(column, position));
+        }
+
+        if (!getBit(missingSparklines, position)) {
+            coin.sparklineIn7D = new SparklineIn7D();
+
+            if (!getBit(missingSparklinePrices, position)) {
+                List<Double> prices = new ArrayList<>();
+
+                for (int i = sparklineOffsets[position]; i < sparklineOffsets[position + 1]; i++) {
+                    prices.add(Double.isNaN(sparklineValues[i]) ? null : sparklineValues[i]);
+                }
+
+                coin.sparklineIn7D.price = prices;
+            }
+        }
+
+        return coin;
+    }
+
+    // Writes the coin straight from the columns as a JSON object
+    // Field order and formatting match what Jackson produces for CoinEntity, so clients see identical bytes
+    public void writeCoin(int position, JsonGenerator generator) throws IOException {
+        writeCoin(position, generator, allFields);
+    }
+
+    // Writes only the projection's fields of the coin
+    public void writeCoin(int position, JsonGenerator generator, Projection projection) throws IOException {
+        generator.writeStartObject();
+
+        for (FieldWriter writer : projection.writers) {
+            writer.write(this, position, generator);
+        }
+
+        generator.writeEndObject();
+    }
+
+    // Returns a projection of the named fields (written in CoinEntity order whatever order they are given in)
+    // Returns null if any name is not a coin field
+    public static Projection project(Collection<String> fields) {
+        for (String field : fields) {
+            if (!fieldWriters.containsKey(field)) {
+                return null;
+            }
+        }
+
+        List<String> names = new ArrayList<>();
+        for (String field : fieldWriters.keySet()) {
+            if (fields.contains(field)) {
+                names.add(field);
+            }
+        }
+
+        return new Projection(names);
+    }
+
+    // Every coin field in CoinEntity declaration order (the order Jackson writes them in)
+    private static Map<String, FieldWriter> buildFieldWriters() {
+        Map<String, FieldWriter> writers = new LinkedHashMap<>();
+
+        writers.put("id", (store, position, generator) -> generator.writeStringField("id", store.ids[position]));
+        writers.put("symbol", (store, position, generator) -> generator.writeStringField("symbol", store.symbols[position]));
+        writers.put("name", (store, position, generator) -> generator.writeStringField("name", store.names[position]));
+        writers.put("image", (store, position, generator) -> generator.writeStringField("image", store.getImage(position)));
+        addColumn(writers, MarketColumn.CURRENT_PRICE);
+        addColumn(writers, MarketColumn.MARKET_CAP);
+        addColumn(writers, MarketColumn.MARKET_CAP_RANK);
+        addColumn(writers, MarketColumn.FULLY_DILUTED_VALUATION);
+        addColumn(writers, MarketColumn.TOTAL_VOLUME);
+        addColumn(writers, MarketColumn.HIGH_24H);
+        addColumn(writers, MarketColumn.LOW_24H);
+        addColumn(writers, MarketColumn.PRICE_CHANGE_24H);
+        addColumn(writers, MarketColumn.PRICE_CHANGE_PERCENTAGE_24H);
+        addColumn(writers, MarketColumn.MARKET_CAP_CHANGE_24H);
+        addColumn(writers, MarketColumn.MARKET_CAP_CHANGE_PERCENTAGE_24H);
+        addColumn(writers, MarketColumn.CIRCULATING_SUPPLY);
+        addColumn(writers, MarketColumn.TOTAL_SUPPLY);
+        addColumn(writers, MarketColumn.MAX_SUPPLY);
+        addColumn(writers, MarketColumn.ATH);
+        addColumn(writers, MarketColumn.ATH_CHANGE_PERCENTAGE);
+        writers.put("athDate", (store, position, generator) -> generator.writeStringField("athDate", store.athDates[position]));
+        addColumn(writers, MarketColumn.ATL);
+        addColumn(writers, MarketColumn.ATL_CHANGE_PERCENTAGE);
+        writers.put("atlDate", (store, position, generator) -> generator.writeStringField("atlDate", store.atlDates[position]));
+        writers.put("sparklineIn7D", (store, position, generator) -> store.writeSparkline(generator, position));
+        addColumn(writers, MarketColumn.PRICE_CHANGE_PERCENTAGE_7D);
+        addColumn(writers, MarketColumn.PRICE_CHANGE_PERCENTAGE_14D);
+        addColumn(writers, MarketColumn.PRICE_CHANGE_PERCENTAGE_30D);
+        addColumn(writers, MarketColumn.PRICE_CHANGE_PERCENTAGE_1Y);
+        writers.put("sparklineLastUpdated", (store, position, generator) -> generator.writeStringField("sparklineLastUpdated", store.sparklineLastUpdated[position]));
+        addColumn(writers, MarketColumn.BLOCK_TIME);
+        writers.put("hashingAlgorithm", (store, position, generator) -> generator.writeStringField("hashingAlgorithm", store.hashingAlgorithms[position]));
+        writers.put("description", (store, position, generator) -> generator.writeStringField("description", store.descriptions[position]));
+        writers.put("homepageUrl", (store, position, generator) -> generator.writeStringField("homepageUrl", store.homepageUrls[position]));
+        writers.put("subredditUrl", (store, position, generator) -> generator.writeStringField("subredditUrl", store.subredditUrls[position]));
+        writers.put("genesisDate", (store, position, generator) -> generator.writeStringField("genesisDate", store.genesisDates[position]));
+        addColumn(writers, MarketColumn.POSITIVE_SENTIMENT_PERCENTAGE);
+        writers.put("recommendedCoins", (store, position, generator) -> store.writeRecommendedCoins(generator, position));
+
+        return Collections.unmodifiableMap(writers);
+    }
+
+    private static void addColumn(Map<String, FieldWriter> writers, MarketColumn column) {
+        writers.put(column.getFieldName(), (store, position, generator) -> store.writeColumn(generator, column, position));
+    }
+
+    private void writeRecommendedCoins(JsonGenerator generator, int position) throws IOException {
+        generator.writeFieldName("recommendedCoins");
+
+        if (recommendedCoins[position] == null) {
+            generator.writeNull();
+            return;
+        }
+
+        generator.writeStartArray();
+
+        for (String coinId : recommendedCoins[position]) {
+            generator.writeString(coinId);
+        }
+
+        generator.writeEndArray();
+    }
+
+    // Writes every coin in the compact binary format (big-endian, varints are unsigned LEB128):
+    //
+    // header:      magic 'CPTM', format version (byte), data version (long), lastUpdated (byte length + 1 as a varint, 0 = null, then UTF-8 bytes)
+    // strings:     count (varint), then each string as byte length (varint) + UTF-8 bytes -- every string below is an index into this table
+    // coins:       count (varint), then for each coin its id, symbol, name, image, athDate, atlDate, sparklineLastUpdated,
+    //              hashingAlgorithm, description, homepageUrl, subredditUrl, and genesisDate as string refs,
+    //              followed by recommendedCoins as count + 1 (varint, 0 = null) and that many string refs
+    // columns:     count (varint), then for each column its field name (string ref), integral flag (byte),
+    //              null bitmap ((coins + 7) / 8 bytes, bit set = null), and a raw IEEE double for each non-null coin
+    // sparklines:  for each coin a state byte (0 = no sparkline, 1 = no prices, 2 = prices), and for state 2 the point count (varint),
+    //              a base value (double), and each point as a float delta from the previous decoded value (NaN = missing point)
+    //
+    // String refs are the table index + 1 (varint, 0 = null)
+    // Sparkline deltas are relative to the decoded (not original) previous value, so float rounding never accumulates
+    public void writeBinary(String lastUpdated, long version, DataOutputStream output) throws IOException {
+        output.write(binaryMagic);
+        output.writeByte(binaryFormatVersion);
+        output.writeLong(version);
+        writeNullableString(output, lastUpdated);
+
+        // Shared string table (repeated values are written once)
+        Map<String, Integer> table = new LinkedHashMap<>();
+        // Null entry stands in for the image, which is stored split into prefix + suffix
+        String[][] stringColumns = {ids, symbols, names, null, athDates, atlDates, sparklineLastUpdated, hashingAlgorithms,
+                descriptions, homepageUrls, subredditUrls, genesisDates};
+
+        for (int i = 0; i < size; i++) {
+            addToTable(table, getImage(i));
+
+            for (String[] column : stringColumns) {
+                if (column != null) {
+                    addToTable(table, column[i]);
+                }
+            }
+
+            if (recommendedCoins[i] != null) {
+                for (String coinId : recommendedCoins[i]) {
+                    addToTable(table, coinId);
+                }
+            }
+        }
+
+        for (MarketColumn column : MarketColumn.values()) {
+            addToTable(table, column.getFieldName());
+        }
+
+        writeVarInt(output, table.size());
+        for (String value : table.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+            writeVarInt(output, bytes.length);
+            output.write(bytes);
+        }
+
+        writeVarInt(output, size);
+        for (int i = 0; i < size; i++) {
+            for (String[] column : stringColumns) {
+                writeStringRef(output, table, column == null ? getImage(i) : column[i]);
+            }
+
+            if (recommendedCoins[i] == null) {
+                writeVarInt(output, 0);
+            } else {
+                writeVarInt(output, recommendedCoins[i].length + 1);
+
+                for (String coinId : recommendedCoins[i]) {
+                    writeStringRef(output, table, coinId);
+                }
+            }
+        }
+
+        MarketColumn[] columnTypes = MarketColumn.values();
+        writeVarInt(output, columnTypes.length);
+
+        for (MarketColumn column : columnTypes) {
+            long[] bitmap = nulls[column.ordinal()];
+            double[] values = columns[column.ordinal()];
+
+            writeStringRef(output, table, column.getFieldName());
+            output.writeByte(column.isIntegral() ? 1 : 0);
+
+            for (int i = 0; i < (size + 7) / 8; i++) {
+                output.writeByte((int) (bitmap[i >>> 3] >>> ((i & 7) * 8)));
+            }
+
+            for (int i = 0; i < size; i++) {
+                if (!getBit(bitmap, i)) {
+                    output.writeDouble(values[i]);
+                }
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (getBit(missingSparklines, i)) {
+                output.writeByte(0);
+            } else if (getBit(missingSparklinePrices, i)) {
+                output.writeByte(1);
+            } else {
+                int start = sparklineOffsets[i];
+                int end = sparklineOffsets[i + 1];
+
+                output.writeByte(2);
+                writeVarInt(output, end - start);
+
+                // First non-missing point is the base
+                double previous = 0;
+                for (int j = start; j < end; j++) {
+                    if (!Double.isNaN(sparklineValues[j])) {
+                        previous = sparklineValues[j];
+                        break;
+                    }
+                }
+
+                output.writeDouble(previous);
+
+                for (int j = start; j < end; j++) {
+                    if (Double.isNaN(sparklineValues[j])) {
+                        output.writeFloat(Float.NaN);
+                    } else {
+                        float delta = (float) (sparklineValues[j] - previous);
+
+                        output.writeFloat(delta);
+                        previous += delta;
+                    }
+                }
+            }
+        }
+    }
+
+    private void addToTable(Map<String, Integer> table, String value) {
+        if (value != null) {
+            table.putIfAbsent(value, table.size());
+        }
+    }
+
+    private void writeStringRef(DataOutputStream output, Map<String, Integer> table, String value) throws IOException {
+        writeVarInt(output, value == null ? 0 : table.get(value) + 1);
+    }
+
+    private void writeNullableString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(output, 0);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        writeVarInt(output, bytes.length + 1);
+        output.write(bytes);
+    }
+
+    private void writeVarInt(DataOutputStream output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        output.writeByte(value);
+    }
+
+    private void writeColumn(JsonGenerator generator, MarketColumn column, int position) throws IOException {
+        generator.writeFieldName(column.getFieldName());
+
+        if (getBit(nulls[column.ordinal()], position)) {
+            generator.writeNull();
+        } else if (column.isIntegral()) {
+            generator.writeNumber((long) columns[column.ordinal()][position]);
+        } else {
+            generator.writeNumber(columns[column.ordinal()][position]);
+        }
+    }
+
+    private void writeSparkline(JsonGenerator generator, int position) throws IOException {
+        generator.writeFieldName("sparklineIn7D");
+
+        if (getBit(missingSparklines, position)) {
+            generator.writeNull();
+            return;
+        }
+
+        generator.writeStartObject();
+        generator.writeFieldName("price");
+
+        if (getBit(missingSparklinePrices, position)) {
+            generator.writeNull();
+        } else {
+            generator.writeStartArray();
+
+            for (int i = sparklineOffsets[position]; i < sparklineOffsets[position + 1]; i++) {
+                if (Double.isNaN(sparklineValues[i])) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(sparklineValues[i]);
+                }
+            }
+
+            generator.writeEndArray();
+        }
+
+        generator.writeEndObject();
+    }
+
+    private String dedup(Map<String, String> pool, String value) {
+        return value == null ? null : pool.computeIfAbsent(value, key -> key);
+    }
+
+    private static int bitmapLength(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    private static void setBit(long[] bitmap, int position) {
+        bitmap[position >>> 6] |= 1L << position;
+    }
+
+    private static boolean getBit(long[] bitmap, int position) {
+        return (bitmap[position >>> 6] & (1L << position)) != 0;
+    }
+
+    // Writes one field of a coin (name and value)
+    private interface FieldWriter {
+        void write(MarketColumnStore store, int position, JsonGenerator generator) throws IOException;
+    }
+
+    // Precompiled subset of coin fields -- built once per distinct 'fields' request and reused for every coin
+    public static class Projection {
+        // Field names joined in write order (identical for the same set of fields in any order)
+        private final String key;
+        private final FieldWriter[] writers;
+
+        private Projection(List<String> fields) {
+            this.key = String.join(",", fields);
+            this.writers = new FieldWriter[fields.size()];
+
+            for (int i = 0; i < writers.length; i++) {
+                writers[i] = fieldWriters.get(fields.get(i));
+            }
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+}
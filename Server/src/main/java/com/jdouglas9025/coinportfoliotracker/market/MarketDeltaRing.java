@@ -0,0 +1,174 @@
+package com.jdouglas9025.coinportfoliotracker.market;
+
+import com.jdouglas9025.coinportfoliotracker.entity.market.CoinEntity;
+import com.jdouglas9025.coinportfoliotracker.entity.market.CoinPriceEntity;
+import com.jdouglas9025.coinportfoliotracker.entity.market.MarketDeltaEntity;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Keeps a short ring of recent market data versions so clients can fetch only what changed since their version
+// Only a fingerprint of each coin's price data is retained per version rather than the coins themselves
+public class MarketDeltaRing {
+    private final int capacity;
+    // Retained versions (oldest first)
+    private final ArrayDeque<MarketVersion> versions = new ArrayDeque<>();
+    private long lastVersion;
+
+    public MarketDeltaRing(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // Records a new version of the market data and returns the deltas from each retained version to it
+    // Key is the version a client would be on; the new version maps to an empty delta
+    public synchronized Map<Long, MarketDeltaEntity> publish(List<CoinEntity> coins) {
+        // Based on the clock so versions keep increasing across restarts (no reuse of an old number for new data)
+        long version = Math.max(lastVersion + 1, System.currentTimeMillis());
+
+        Map<String, CoinFingerprint> fingerprints = new LinkedHashMap<>();
+        for (CoinEntity coin : coins) {
+            fingerprints.put(coin.id, new CoinFingerprint(hashPriceData(coin), hashSparkline(coin)));
+        }
+
+        Map<Long, MarketDeltaEntity> result = new HashMap<>();
+
+        for (MarketVersion previous : versions) {
+            result.put(previous.version, buildDelta(version, previous, coins, fingerprints));
+        }
+
+        // Empty delta for clients already on the new version
+        result.put(version, new MarketDeltaEntity(version, version, false, List.of(), List.of(), List.of()));
+
+        versions.addLast(new MarketVersion(version, fingerprints));
+        if (versions.size() > capacity) {
+            versions.removeFirst();
+        }
+
+        lastVersion = version;
+
+        return result;
+    }
+
+    public synchronized long getLatestVersion() {
+        return lastVersion;
+    }
+
+    // Delta for clients whose version has been evicted (or never existed) -- every coin is sent as added
+    public MarketDeltaEntity buildFullDelta(long version, List<CoinEntity> coins) {
+        return new MarketDeltaEntity(version, null, true, List.of(), coins, List.of());
+    }
+
+    private MarketDeltaEntity buildDelta(long version, MarketVersion previous, List<CoinEntity> coins, Map<String, CoinFingerprint> fingerprints) {
+        List<CoinPriceEntity> changed = new ArrayList<>();
+        List<CoinEntity> added = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+
+        for (CoinEntity coin : coins) {
+            CoinFingerprint before = previous.fingerprints.get(coin.id);
+            CoinFingerprint after = fingerprints.get(coin.id);
+
+            if (before == null) {
+                added.add(coin);
+            } else if (before.priceHash != after.priceHash || before.sparklineHash != after.sparklineHash) {
+                // Sparkline is large, so only include it if it changed
+                changed.add(new CoinPriceEntity(coin, before.sparklineHash != after.sparklineHash));
+            }
+        }
+
+        for (String coinId : previous.fingerprints.keySet()) {
+            if (!fingerprints.containsKey(coinId)) {
+                removed.add(coinId);
+            }
+        }
+
+        return new MarketDeltaEntity(version, previous.version, false, changed, added, removed);
+    }
+
+    private long hashPriceData(CoinEntity coin) {
+        long hash = 17;
+
+        hash = mix(hash, coin.currentPrice);
+        hash = mix(hash, coin.marketCap);
+        hash = mix(hash, coin.marketCapRank);
+        hash = mix(hash, coin.fullyDilutedValuation);
+        hash = mix(hash, coin.totalVolume);
+        hash = mix(hash, coin.high24H);
+        hash = mix(hash, coin.low24H);
+        hash = mix(hash, coin.priceChange24H);
+        hash = mix(hash, coin.priceChangePercentage24H);
+        hash = mix(hash, coin.marketCapChange24H);
+        hash = mix(hash, coin.marketCapChangePercentage24H);
+        hash = mix(hash, coin.circulatingSupply);
+        hash = mix(hash, coin.totalSupply);
+        hash = mix(hash, coin.maxSupply);
+        hash = mix(hash, coin.ath);
+        hash = mix(hash, coin.athChangePercentage);
+        hash = mix(hash, coin.athDate);
+        hash = mix(hash, coin.atl);
+        hash = mix(hash, coin.atlChangePercentage);
+        hash = mix(hash, coin.atlDate);
+        hash = mix(hash, coin.priceChangePercentage7D);
+        hash = mix(hash, coin.priceChangePercentage14D);
+        hash = mix(hash, coin.priceChangePercentage30D);
+        hash = mix(hash, coin.priceChangePercentage1Y);
+
+        return hash;
+    }
+
+    private long hashSparkline(CoinEntity coin) {
+        long hash = mix(17, coin.sparklineLastUpdated);
+
+        if (coin.sparklineIn7D != null && coin.sparklineIn7D.price != null) {
+            for (Double price : coin.sparklineIn7D.price) {
+                hash = mix(hash, price);
+            }
+        }
+
+        return hash;
+    }
+
+    // 64-bit hash combine -- a 32-bit hash would make missed changes across 1000 coins a realistic possibility
+    private long mix(long hash, Object value) {
+        long bits;
+
+        if (value == null) {
+            // Distinct from 0.0 so a value disappearing is still seen as a change
+            bits = 0x5BD1E995L;
+        } else if (value instanceof Double number) {
+            bits = Double.doubleToLongBits(number);
+        } else {
+            bits = Objects.hashCode(value);
+        }
+
+        hash ^= bits + 0x9E3779B97F4A7C15L + (hash << 6) + (hash >>> 2);
+
+        return hash;
+    }
+
+    // Price data fingerprint for a coin at a particular version
+    private static class CoinFingerprint {
+        private final long priceHash;
+        private final long sparklineHash;
+
+        private CoinFingerprint(long priceHash, long sparklineHash) {
+            this.priceHash = priceHash;
+            this.sparklineHash = sparklineHash;
+        }
+    }
+
+    private static class MarketVersion {
+        private final long version;
+        // Key: coin id
+        private final Map<String, CoinFingerprint> fingerprints;
+
+        private MarketVersion(long version, Map<String, CoinFingerprint> fingerprints) {
+            this.version = version;
+            this.fingerprints = fingerprints;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.jdouglas9025.coinportfoliotracker.market;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Precomputed sort orders and per-coin JSON for one version of the market data
+// Built once per refresh so a filtered/sorted/paginated request is a walk over an index array and a byte copy
+public class MarketIndex {
+    private final String lastUpdated;
+    private final long version;
+    // Start of the response body ('{"lastUpdated":...,"data":[')
+    private final byte[] prefix;
+    // Encoded JSON for each coin (same order as the source list)
+    private final byte[][] encodedCoins;
+    // Key: sparkline points, value: encoded JSON for each coin with its sparkline downsampled
+    private final Map<Integer, byte[][]> sparklineEncodings;
+    // Lowercase id, symbol, and name for each coin for filtering
+    private final String[] ids;
+    private final String[] symbols;
+    private final String[] names;
+    // Coin positions sorted ascending and descending by each option's key, with null keys at the end
+    // Ties keep their market cap order in both directions
+    private final Map<MarketSortOption, int[]> ascendingIndexes = new EnumMap<>(MarketSortOption.class);
+    private final Map<MarketSortOption, int[]> descendingIndexes = new EnumMap<>(MarketSortOption.class);
+
+    public MarketIndex(String lastUpdated, long version, byte[] prefix, MarketColumnStore coins, byte[][] encodedCoins,
+                       Map<Integer, byte[][]> sparklineEncodings) {
+        this.lastUpdated = lastUpdated;
+        this.version = version;
+        this.prefix = prefix;
+        this.encodedCoins = encodedCoins;
+        this.sparklineEncodings = Map.copyOf(sparklineEncodings);
+
+        int size = coins.size();
+        ids = new String[size];
+        symbols = new String[size];
+        names = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            ids[i] = toLowerCase(coins.getId(i));
+            symbols[i] = toLowerCase(coins.getSymbol(i));
+            names[i] = toLowerCase(coins.getName(i));
+        }
+
+        for (MarketSortOption option : MarketSortOption.values()) {
+            buildSortedIndex(option, coins);
+        }
+    }
+
+    // Returns the requested page of coins (after filtering) in the requested order
+    // Sparkline points must be null (full sparklines) or one of the precomputed resolutions
+    public MarketPage query(MarketSortOption sort, boolean descending, String filter, int offset, int limit, Integer sparklinePoints) {
+        byte[][] encoded = sparklinePoints == null ? encodedCoins : sparklineEncodings.get(sparklinePoints);
+
+        return query(sort, descending, filter, offset, limit, encoded);
+    }
+
+    // Same as above using other encodings of the same coins (e.g., a field projection) in the same order
+    public MarketPage query(MarketSortOption sort, boolean descending, String filter, int offset, int limit, byte[][] encoded) {
+        int[] sorted = descending ? descendingIndexes.get(sort) : ascendingIndexes.get(sort);
+        String term = filter == null || filter.isBlank() ? null : filter.trim().toLowerCase(Locale.ROOT);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.writeBytes(prefix);
+
+        int matches = 0;
+        int written = 0;
+
+        for (int position : sorted) {
+            if (term != null && !matchesFilter(position, term)) {
+                continue;
+            }
+
+            // Count every match for the total, but only write the coins within the page
+            if (matches >= offset && written < limit) {
+                if (written > 0) {
+                    output.write(',');
+                }
+
+                output.writeBytes(encoded[position]);
+                written++;
+            }
+
+            matches++;
+        }
+
+        output.write(']');
+        output.write('}');
+
+        return new MarketPage(output.toByteArray(), matches);
+    }
+
+    private boolean matchesFilter(int position, String term) {
+        return (names[position] != null && names[position].contains(term))
+                || (symbols[position] != null && symbols[position].contains(term))
+                || (ids[position] != null && ids[position].contains(term));
+    }
+
+    private void buildSortedIndex(MarketSortOption option, MarketColumnStore coins) {
+        int size = coins.size();
+        Double[] keys = new Double[size];
+        Integer[] positions = new Integer[size];
+
+        int nonNullCount = 0;
+        for (int i = 0; i < size; i++) {
+            keys[i] = option.getKey(coins, i);
+            positions[i] = i;
+
+            if (keys[i] != null) {
+                nonNullCount++;
+            }
+        }
+
+        // Stable sort, so ties keep their market cap order
+        Arrays.sort(positions, (a, b) -> {
+            Double first = keys[a];
+            Double second = keys[b];
+
+            if (first == null || second == null) {
+                return first == null ? (second == null ? 0 : 1) : -1;
+            }
+
+            return Double.compare(first, second);
+        });
+
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = positions[i];
+        }
+
+        // Descending takes the runs of equal keys from last to first, keeping each run in market cap order
+        // (null keys still come last)
+        int[] descending = new int[size];
+        int written = 0;
+        int runEnd = nonNullCount;
+
+        while (runEnd > 0) {
+            int runStart = runEnd - 1;
+            while (runStart > 0 && keys[result[runStart - 1]].equals(keys[result[runEnd - 1]])) {
+                runStart--;
+            }
+
+            System.arraycopy(result, runStart, descending, written, runEnd - runStart);
+            written += runEnd - runStart;
+            runEnd = runStart;
+        }
+
+        System.arraycopy(result, nonNullCount, descending, nonNullCount, size - nonNullCount);
+
+        ascendingIndexes.put(option, result);
+        descendingIndexes.put(option, descending);
+    }
+
+    private String toLowerCase(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    public String getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return encodedCoins.length;
+    }
+
+    // Encoded response body for a page of coins and the total number of coins matching the filter
+    public static class MarketPage {
+        private final byte[] json;
+        private final int total;
+
+        public MarketPage(byte[] json, int total) {
+            this.json = json;
+            this.total = total;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+}
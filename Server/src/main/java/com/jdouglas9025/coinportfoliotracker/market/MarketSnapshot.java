@@ -0,0 +1,108 @@
+package com.jdouglas9025.coinportfoliotracker.market;
+
+import com.jdouglas9025.coinportfoliotracker.snapshot.DatasetSnapshot;
+import com.jdouglas9025.coinportfoliotracker.snapshot.ResponseSnapshot;
+
+import java.util.Map;
+
+// Point-in-time view of the market data and everything derived from it (encoded responses, deltas, indexes)
+// Built off to the side (including metadata/recommendation enrichment) and published with a single reference swap,
+// so a reader always sees coins, responses, and indexes from the same refresh
+public class MarketSnapshot extends DatasetSnapshot<MarketColumnStore> {
+    private final long version;
+    // Key: version the client is on
+    private final Map<Long, ResponseSnapshot> deltaResponses;
+    // Served when the client's version is no longer retained
+    private final ResponseSnapshot fullDeltaResponse;
+    private final MarketIndex marketIndex;
+    private final CoinSearchIndex coinSearchIndex;
+    // Key: sparkline points -- coins with downsampled sparklines and the full response encoded from them
+    private final Map<Integer, MarketColumnStore> sparklineStores;
+    private final Map<Integer, ResponseSnapshot> sparklineResponses;
+    // Binary encoding of the full response, and of each sparkline resolution (key: sparkline points)
+    private final ResponseSnapshot binaryResponse;
+    private final Map<Integer, ResponseSnapshot> binarySparklineResponses;
+
+    public MarketSnapshot(MarketColumnStore coins, String lastUpdated, long version, ResponseSnapshot response,
+                          Map<Long, ResponseSnapshot> deltaResponses, ResponseSnapshot fullDeltaResponse,
+                          MarketIndex marketIndex, CoinSearchIndex coinSearchIndex,
+                          Map<Integer, MarketColumnStore> sparklineStores, Map<Integer, ResponseSnapshot> sparklineResponses,
+                          ResponseSnapshot binaryResponse, Map<Integer, ResponseSnapshot> binarySparklineResponses) {
+        super(coins, lastUpdated, response);
+
+        this.version = version;
+        this.deltaResponses = Map.copyOf(deltaResponses);
+        this.fullDeltaResponse = fullDeltaResponse;
+        this.marketIndex = marketIndex;
+        this.coinSearchIndex = coinSearchIndex;
+        this.sparklineStores = Map.copyOf(sparklineStores);
+        this.sparklineResponses = Map.copyOf(sparklineResponses);
+        this.binaryResponse = binaryResponse;
+        this.binarySparklineResponses = Map.copyOf(binarySparklineResponses);
+    }
+
+    // Snapshot served before the first refresh (no coins, no indexes)
+    public static MarketSnapshot empty(ResponseSnapshot emptyResponse) {
+        return new MarketSnapshot(null, null, 0, emptyResponse, Map.of(), emptyResponse, null, null, Map.of(), Map.of(), null, Map.of());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Returns changes since the given version, or every coin if that version is no longer retained
+    public ResponseSnapshot getDeltaResponse(Long sinceVersion) {
+        if (sinceVersion == null) {
+            return fullDeltaResponse;
+        }
+
+        return deltaResponses.getOrDefault(sinceVersion, fullDeltaResponse);
+    }
+
+    // Whether the market data has been precomputed with sparklines of this many points
+    public boolean hasSparklinePoints(int points) {
+        return sparklineResponses.containsKey(points);
+    }
+
+    // Full market data response with sparklines downsampled to a precomputed number of points
+    public ResponseSnapshot getSparklineResponse(int points) {
+        return sparklineResponses.get(points);
+    }
+
+    // Coins with sparklines downsampled to a precomputed resolution (null = full sparklines)
+    public MarketColumnStore getSparklineStore(Integer sparklinePoints) {
+        return sparklinePoints == null ? getData() : sparklineStores.get(sparklinePoints);
+    }
+
+    // Binary encoding of the full response (or of a precomputed sparkline resolution) -- null before the first refresh
+    public ResponseSnapshot getBinaryResponse(Integer sparklinePoints) {
+        return sparklinePoints == null ? binaryResponse : binarySparklineResponses.get(sparklinePoints);
+    }
+
+    // Returns the coin's sparkline with at most 'points' values (null = every value)
+    // Precomputed resolutions are a lookup; any other resolution is downsampled on request
+    public double[] getSparkline(int position, Integer points) {
+        if (points == null) {
+            return getData().getSparkline(position);
+        }
+
+        MarketColumnStore store = sparklineStores.get(points);
+        if (store != null) {
+            return store.getSparkline(position);
+        }
+
+        double[] sparkline = getData().getSparkline(position);
+
+        return sparkline == null ? null : SparklineDownsampler.downsample(sparkline, points);
+    }
+
+    // Null before the first refresh
+    public MarketIndex getMarketIndex() {
+        return marketIndex;
+    }
+
+    // Null before the first refresh
+    public CoinSearchIndex getCoinSearchIndex() {
+        return coinSearchIndex;
+    }
+}
@@ -0,0 +1,41 @@
+package com.jdouglas9025.coinportfoliotracker.market;
+
+// Sort orders supported by the market data endpoint -- each is precomputed as an index once per refresh
+public enum MarketSortOption {
+    RANK("rank", MarketColumn.MARKET_CAP_RANK),
+    PRICE_CHANGE_24H("priceChange24h", MarketColumn.PRICE_CHANGE_PERCENTAGE_24H),
+    PRICE_CHANGE_7D("priceChange7d", MarketColumn.PRICE_CHANGE_PERCENTAGE_7D),
+    PRICE_CHANGE_30D("priceChange30d", MarketColumn.PRICE_CHANGE_PERCENTAGE_30D),
+    PRICE_CHANGE_1Y("priceChange1y", MarketColumn.PRICE_CHANGE_PERCENTAGE_1Y),
+    VOLUME("volume", MarketColumn.TOTAL_VOLUME),
+    MARKET_CAP("marketCap", MarketColumn.MARKET_CAP);
+
+    // Value used in the 'sort' query parameter
+    private final String param;
+    // Value to sort on (null values are always placed last)
+    private final MarketColumn key;
+
+    MarketSortOption(String param, MarketColumn key) {
+        this.param = param;
+        this.key = key;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public Double getKey(MarketColumnStore coins, int position) {
+        return coins.getValue(key, position);
+    }
+
+    // Returns the matching option, or null if the parameter is not supported
+    public static MarketSortOption fromParam(String param) {
+        for (MarketSortOption option : values()) {
+            if (option.param.equalsIgnoreCase(param)) {
+                return option;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.jdouglas9025.coinportfoliotracker.market;
+
+// Reduces a sparkline to fewer points with Largest-Triangle-Three-Buckets (LTTB)
+// Keeps the first and last points, then picks the point from each bucket that forms the largest triangle with the
+// previously picked point and the average of the next bucket -- peaks and dips survive where plain averaging would flatten them
+public class SparklineDownsampler {
+    private SparklineDownsampler() {
+    }
+
+    // Returns the downsampled series (or a copy of the series if it already has 'points' or fewer values)
+    public static double[] downsample(double[] values, int points) {
+        int length = values.length;
+
+        if (points >= length || points < 2) {
+            return values.clone();
+        }
+
+        double[] result = new double[points];
+        result[0] = values[0];
+        result[points - 1] = values[length - 1];
+
+        if (points == 2) {
+            return result;
+        }
+
+        // Every point except the first and last is split across (points - 2) buckets
+        double bucketSize = (double) (length - 2) / (points - 2);
+        int previous = 0;
+
+        for (int bucket = 0; bucket < points - 2; bucket++) {
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+
+            // Average of the next bucket (the last point for the final bucket)
+            int nextStart = end;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, length);
+            if (nextStart >= nextEnd) {
+                nextStart = length - 1;
+                nextEnd = length;
+            }
+
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += i;
+                averageY += values[i];
+            }
+            averageX /= nextEnd - nextStart;
+            averageY /= nextEnd - nextStart;
+
+            // Point in this bucket with the largest triangle area (x is the point's index in the series)
+            double previousY = values[previous];
+            double maxArea = -1;
+            int selected = start;
+
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((previous - averageX) * (values[i] - previousY) - (previous - i) * (averageY - previousY));
+
+                if (area > maxArea) {
+                    maxArea = area;
+                    selected = i;
+                }
+            }
+
+            result[bucket + 1] = values[selected];
+            previous = selected;
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,165 @@
+package com.jdouglas9025.coinportfoliotracker.metadata;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.jdouglas9025.coinportfoliotracker.market.MarketColumnStore;
+import com.jdouglas9025.coinportfoliotracker.snapshot.DurableFiles;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// When the metadata of each coin (key: coin id) was last fetched and last attempted, kept on disk between runs
+// Decides which coins a metadata refresh fetches next, so an interrupted refresh resumes where it stopped rather than starting over:
+// - Coins without metadata (e.g., new to the top 1000) come first, in market cap order
+// - Then coins whose metadata is older than the max age, oldest first
+// - Coins whose last attempt failed wait for the retry interval, so one bad coin is not fetched over and over
+public class MetadataCheckpoint {
+    private static final Type entriesType = new TypeToken<Map<String, CheckpointEntry>>() {
+    }.getType();
+
+    private final Gson gson = new Gson();
+    private final Path path;
+    private final Duration maxAge;
+    private final Duration retryInterval;
+    private final Map<String, CheckpointEntry> entries = new HashMap<>();
+
+    private MetadataCheckpoint(Path path, Duration maxAge, Duration retryInterval) {
+        this.path = path;
+        this.maxAge = maxAge;
+        this.retryInterval = retryInterval;
+    }
+
+    // Loads the checkpoint file if it exists (a missing or unreadable file starts an empty checkpoint)
+    public static MetadataCheckpoint open(Path path, Duration maxAge, Duration retryInterval) {
+        MetadataCheckpoint checkpoint = new MetadataCheckpoint(path, maxAge, retryInterval);
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            Map<String, CheckpointEntry> loaded = checkpoint.gson.fromJson(reader, entriesType);
+
+            if (loaded != null) {
+                for (Map.Entry<String, CheckpointEntry> entry : loaded.entrySet()) {
+                    if (entry.getKey() != null && entry.getValue() != null) {
+                        checkpoint.entries.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+        } catch (NoSuchFileException ignored) {
+        } catch (Exception ignored) {
+            // Corrupt file -- coins with metadata are refreshed once more, then the file is rebuilt
+        }
+
+        return checkpoint;
+    }
+
+    // Records coins that already have metadata but no entry (e.g., metadata saved before checkpoints existed) as fetched at the given time
+    public synchronized void addMissing(Collection<String> coinIds, long fetchedAt) {
+        for (String coinId : coinIds) {
+            entries.putIfAbsent(coinId, new CheckpointEntry(fetchedAt, fetchedAt));
+        }
+    }
+
+    // Returns up to 'limit' coins to fetch next (empty if every coin is up to date)
+    public synchronized List<String> getDue(MarketColumnStore coins, Map<String, ?> metadata, int limit) {
+        long now = System.currentTimeMillis();
+        List<String> result = new ArrayList<>();
+        List<String> stale = new ArrayList<>();
+
+        for (int i = 0; i < coins.size(); i++) {
+            String coinId = coins.getId(i);
+            CheckpointEntry entry = entries.get(coinId);
+
+            if (entry != null && now - entry.attemptedAt < retryInterval.toMillis()) {
+                continue;
+            }
+
+            if (metadata == null || !metadata.containsKey(coinId)) {
+                result.add(coinId);
+
+                if (result.size() == limit) {
+                    return result;
+                }
+            } else if (entry == null || now - entry.fetchedAt >= maxAge.toMillis()) {
+                stale.add(coinId);
+            }
+        }
+
+        stale.sort((a, b) -> Long.compare(getFetchedAt(a), getFetchedAt(b)));
+
+        for (int i = 0; i < stale.size() && result.size() < limit; i++) {
+            result.add(stale.get(i));
+        }
+
+        return result;
+    }
+
+    // Call after every attempt -- 'succeeded' is false if no metadata was received (e.g., an error response)
+    public synchronized void record(String coinId, boolean succeeded) {
+        long now = System.currentTimeMillis();
+        CheckpointEntry entry = entries.get(coinId);
+
+        long fetchedAt = succeeded ? now : (entry == null ? 0 : entry.fetchedAt);
+        entries.put(coinId, new CheckpointEntry(fetchedAt, now));
+    }
+
+    // Forgets coins not fetched for twice the max age (coins still in the top 1000 are refetched well before then)
+    // Returns the forgotten coin ids so their metadata can be dropped as well
+    public synchronized Set<String> removeExpired() {
+        long cutoff = System.currentTimeMillis() - 2 * maxAge.toMillis();
+        Set<String> result = new HashSet<>();
+
+        entries.entrySet().removeIf(entry -> {
+            boolean expired = entry.getValue().attemptedAt < cutoff;
+
+            if (expired) {
+                result.add(entry.getKey());
+            }
+
+            return expired;
+        });
+
+        return result;
+    }
+
+    // Writes the checkpoint to a temporary file, then renames it over the checkpoint file so a crash never leaves half a file
+    public synchronized void save() throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            gson.toJson(entries, entriesType, writer);
+        }
+
+        DurableFiles.replace(temporary, path);
+    }
+
+    private long getFetchedAt(String coinId) {
+        CheckpointEntry entry = entries.get(coinId);
+
+        return entry == null ? 0 : entry.fetchedAt;
+    }
+
+    public static class CheckpointEntry {
+        // Epoch milliseconds (0 if metadata was never received)
+        public long fetchedAt;
+        public long attemptedAt;
+
+        public CheckpointEntry(long fetchedAt, long attemptedAt) {
+            this.fetchedAt = fetchedAt;
+            this.attemptedAt = attemptedAt;
+        }
+    }
+}
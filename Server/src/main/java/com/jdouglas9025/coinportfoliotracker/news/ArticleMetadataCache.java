@@ -0,0 +1,112 @@
+package com.jdouglas9025.coinportfoliotracker.news;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.jdouglas9025.coinportfoliotracker.snapshot.DurableFiles;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Header image of each article page already fetched (key: article URL), kept on disk between runs
+// Articles stay in the news feed for about a week, so most of each hourly refresh is served from here rather than refetched
+// Entries older than the TTL are dropped when read and when the cache is saved
+public class ArticleMetadataCache {
+    private static final Type entriesType = new TypeToken<Map<String, CachedArticle>>() {
+    }.getType();
+
+    private final Gson gson = new Gson();
+    private final Path path;
+    private final Duration ttl;
+    private final Map<String, CachedArticle> entries = new ConcurrentHashMap<>();
+
+    private ArticleMetadataCache(Path path, Duration ttl) {
+        this.path = path;
+        this.ttl = ttl;
+    }
+
+    // Loads the cache file if it exists (a missing or unreadable file starts an empty cache)
+    public static ArticleMetadataCache open(Path path, Duration ttl) {
+        ArticleMetadataCache cache = new ArticleMetadataCache(path, ttl);
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            Map<String, CachedArticle> loaded = cache.gson.fromJson(reader, entriesType);
+
+            if (loaded != null) {
+                long now = System.currentTimeMillis();
+
+                for (Map.Entry<String, CachedArticle> entry : loaded.entrySet()) {
+                    if (entry.getKey() != null && entry.getValue() != null && !cache.isExpired(entry.getValue(), now)) {
+                        cache.entries.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+        } catch (NoSuchFileException ignored) {
+        } catch (Exception ignored) {
+            // Corrupt file -- rebuilt on the next save
+        }
+
+        return cache;
+    }
+
+    // Returns the cached entry for the article, or null if it has not been fetched (or its entry expired)
+    public CachedArticle get(String url) {
+        CachedArticle entry = entries.get(url);
+
+        if (entry != null && isExpired(entry, System.currentTimeMillis())) {
+            entries.remove(url, entry);
+
+            return null;
+        }
+
+        return entry;
+    }
+
+    // imageUrl may be null (page fetched, but it has no header image) so the page is not fetched again
+    public void put(String url, String imageUrl) {
+        entries.put(url, new CachedArticle(imageUrl, System.currentTimeMillis()));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Writes unexpired entries to a temporary file, then renames it over the cache file so a crash never leaves half a file
+    public synchronized void save() throws IOException {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> isExpired(entry, now));
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            gson.toJson(new HashMap<>(entries), entriesType, writer);
+        }
+
+        DurableFiles.replace(temporary, path);
+    }
+
+    private boolean isExpired(CachedArticle entry, long now) {
+        return now - entry.fetchedAt > ttl.toMillis();
+    }
+
+    public static class CachedArticle {
+        public String imageUrl;
+        // Epoch milliseconds
+        public long fetchedAt;
+
+        public CachedArticle(String imageUrl, long fetchedAt) {
+            this.imageUrl = imageUrl;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.jdouglas9025.coinportfoliotracker.news;
+
+import com.jdouglas9025.coinportfoliotracker.market.MarketColumnStore;
+import com.jdouglas9025.coinportfoliotracker.text.EnglishStopWords;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Finds the coins a headline mentions by name (e.g., 'Bitcoin Cash') or by ticker symbol written in capitals (e.g., 'SOL')
+// When several coins share a name or symbol, the one with the best market cap rank is linked
+public class CoinMentionLinker {
+    private static final Pattern wordPattern = Pattern.compile("[\\p{L}\\p{N}]+");
+    // Shorter names and symbols (e.g., 'OP', 'GT') are too often ordinary words or abbreviations
+    private static final int minLength = 3;
+
+    // Key: lowercase name words joined by single spaces, value: coin id
+    private final Map<String, String> names = new HashMap<>();
+    // Key: uppercase symbol, value: coin id
+    private final Map<String, String> symbols = new HashMap<>();
+    // Longest name in words (limits how many word sequences are checked per headline)
+    private int maxNameWords = 1;
+
+    // Coins are in market cap order, so the first coin with a name or symbol keeps it
+    public CoinMentionLinker(MarketColumnStore coins) {
+        for (int i = 0; i < coins.size(); i++) {
+            String id = coins.getId(i);
+            String name = coins.getName(i);
+            String symbol = coins.getSymbol(i);
+
+            if (name != null) {
+                List<String> words = getWords(name.toLowerCase(Locale.ROOT));
+                String key = String.join(" ", words);
+
+                // Single-word names that are ordinary words (e.g., 'Just') would match most headlines
+                if (key.length() >= minLength && !(words.size() == 1 && EnglishStopWords.contains(key))) {
+                    names.putIfAbsent(key, id);
+                    maxNameWords = Math.max(maxNameWords, words.size());
+                }
+            }
+
+            if (symbol != null && symbol.length() >= minLength && !EnglishStopWords.contains(symbol.toLowerCase(Locale.ROOT))) {
+                symbols.putIfAbsent(symbol.toUpperCase(Locale.ROOT), id);
+            }
+        }
+    }
+
+    // Returns the ids of the coins mentioned in the text in order of first mention (null if none)
+    public String[] link(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        List<String> words = getWords(text);
+        Set<String> result = new LinkedHashSet<>();
+
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+
+            // Symbols only count when written in capitals, so 'SOL' links but 'sol' does not
+            String symbolMatch = symbols.get(word);
+            if (symbolMatch != null && word.equals(word.toUpperCase(Locale.ROOT))) {
+                result.add(symbolMatch);
+            }
+
+            // Longest name starting at this word wins (e.g., 'Bitcoin Cash' over 'Bitcoin')
+            StringBuilder key = new StringBuilder();
+            String nameMatch = null;
+            int nameLength = 0;
+
+            for (int length = 1; length <= maxNameWords && i + length <= words.size(); length++) {
+                if (length > 1) {
+                    key.append(' ');
+                }
+                key.append(words.get(i + length - 1).toLowerCase(Locale.ROOT));
+
+                String id = names.get(key.toString());
+                if (id != null) {
+                    nameMatch = id;
+                    nameLength = length;
+                }
+            }
+
+            // Words of a matched name are not matched again (so 'Cash' in 'Bitcoin Cash' is not a separate mention)
+            if (nameMatch != null) {
+                result.add(nameMatch);
+                i += nameLength - 1;
+            }
+        }
+
+        return result.isEmpty() ? null : result.toArray(new String[0]);
+    }
+
+    private List<String> getWords(String text) {
+        List<String> result = new ArrayList<>();
+        Matcher matcher = wordPattern.matcher(text);
+
+        while (matcher.find()) {
+            result.add(matcher.group());
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,150 @@
+package com.jdouglas9025.coinportfoliotracker.news;
+
+import com.jdouglas9025.coinportfoliotracker.entity.news.containers.Publisher;
+import com.jdouglas9025.coinportfoliotracker.entity.news.containers.RawNewsEntity;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Articles from a Google News search over the last 7 days (English, US), read from its RSS feed
+// Titles keep Google's ' - Publisher' suffix and dates keep the RSS format, the same as the previous scraper produced
+public class GoogleNewsSource implements NewsSource {
+    private static final Duration requestTimeout = Duration.ofSeconds(15);
+
+    private final XMLInputFactory xmlInputFactory = XMLInputFactory.newFactory();
+
+    // Feed endpoint (e.g., https://news.google.com/rss/search) -- any server returning the same RSS format works
+    private final String baseUrl;
+    private final String query;
+    private final int maxResults;
+    // Publisher hosts to leave out (matched against the end of the host, e.g., 'forbes.com')
+    private final Set<String> excludedWebsites;
+
+    public GoogleNewsSource(String baseUrl, String query, int maxResults, Set<String> excludedWebsites) {
+        this.baseUrl = baseUrl;
+        this.query = query;
+        this.maxResults = maxResults;
+        this.excludedWebsites = excludedWebsites;
+
+        // Feeds never need external entities or DTDs
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    @Override
+    public String getName() {
+        return "Google News: " + query;
+    }
+
+    @Override
+    public List<RawNewsEntity> fetch(HttpClient client) throws IOException, InterruptedException {
+        String search = URLEncoder.encode(query + " when:7d", StandardCharsets.UTF_8);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .GET()
+                .uri(URI.create(baseUrl + "?q=" + search + "&hl=en-US&gl=US&ceid=US:en"))
+                .timeout(requestTimeout)
+                .build();
+
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                return List.of();
+            }
+
+            return parse(body);
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    // Reads each <item> of the feed as it is streamed, stopping once enough articles are found
+    private List<RawNewsEntity> parse(InputStream body) throws XMLStreamException {
+        List<RawNewsEntity> result = new ArrayList<>();
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(body);
+
+        try {
+            RawNewsEntity current = null;
+
+            while (reader.hasNext() && result.size() < maxResults) {
+                int event = reader.next();
+
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String element = reader.getLocalName();
+
+                    if (element.equals("item")) {
+                        current = new RawNewsEntity();
+                    } else if (current != null) {
+                        switch (element) {
+                            case "title" -> current.title = reader.getElementText();
+                            case "link" -> current.url = reader.getElementText();
+                            case "pubDate" -> current.publishedDate = reader.getElementText();
+                            case "description" -> current.description = reader.getElementText();
+                            case "source" -> {
+                                Publisher publisher = new Publisher();
+                                publisher.publisherUrl = reader.getAttributeValue(null, "url");
+                                publisher.publisherName = reader.getElementText();
+                                current.publisher = publisher;
+                            }
+                            default -> {
+                            }
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals("item")) {
+                    if (current != null && current.title != null && current.url != null && !isExcluded(current)) {
+                        result.add(current);
+                    }
+
+                    current = null;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        return result;
+    }
+
+    private boolean isExcluded(RawNewsEntity article) {
+        if (article.publisher == null || article.publisher.publisherUrl == null) {
+            return false;
+        }
+
+        String host;
+        try {
+            host = URI.create(article.publisher.publisherUrl).getHost();
+        } catch (IllegalArgumentException ignored) {
+            return false;
+        }
+
+        if (host == null) {
+            return false;
+        }
+
+        host = host.toLowerCase(Locale.ROOT);
+
+        for (String website : excludedWebsites) {
+            if (host.equals(website) || host.endsWith("." + website)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,213 @@
+package com.jdouglas9025.coinportfoliotracker.news;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Groups articles covering the same story (e.g., one announcement reported by ten outlets with slightly different headlines)
+// Each article's words are reduced to a MinHash signature, and signatures are bucketed by band (locality-sensitive hashing),
+// so a new article is only compared with the few articles sharing a bucket rather than with every article
+// The index is kept between runs: articles seen before keep their cluster, and each run only hashes the new articles
+public class NewsClusterIndex {
+    private static final Pattern wordPattern = Pattern.compile("[\\p{L}\\p{N}$]+");
+    private static final Pattern tagPattern = Pattern.compile("<[^>]*>|&[a-z]+;|&#\\d+;");
+
+    // 16 bands of 4 rows -- pairs with word overlap (Jaccard) around 0.5 or more almost always share a band
+    private static final int bands = 16;
+    private static final int rows = 4;
+    private static final int signatureSize = bands * rows;
+    // Estimated Jaccard similarity a candidate must reach to join a cluster
+    private static final double similarityThreshold = 0.5;
+
+    // Seeds for each MinHash function (fixed so signatures are comparable across runs)
+    private static final long[] seeds = new long[signatureSize];
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < signatureSize; i++) {
+            seed = mix(seed + i);
+            seeds[i] = seed;
+        }
+    }
+
+    // Articles are forgotten this long after they were first seen (the news feed only covers the last 7 days)
+    private final long retentionMillis;
+
+    // Key: article URL
+    private final Map<String, Entry> entries = new HashMap<>();
+    // Articles in the order they were first seen (for eviction)
+    private final ArrayDeque<Entry> arrivals = new ArrayDeque<>();
+    // Key: band number and that band's rows hashed together, value: articles with that band
+    private final Map<Long, List<Entry>> buckets = new HashMap<>();
+    private long nextClusterId = 1;
+
+    public NewsClusterIndex(long retentionMillis) {
+        this.retentionMillis = retentionMillis;
+    }
+
+    // Returns the cluster of the article, adding it to the index if it has not been seen before
+    // Description may contain HTML (e.g., from an RSS feed); publisher is left out of the comparison so articles from one
+    // publisher do not look alike just because of its name
+    public synchronized long assign(String url, String title, String description, String publisher) {
+        Entry existing = entries.get(url);
+
+        if (existing != null) {
+            return existing.clusterId;
+        }
+
+        long[] signature = sign(title, description, publisher);
+        // Articles with no words are never similar to anything
+        boolean indexed = signature[0] != Long.MAX_VALUE;
+
+        // Most similar indexed article sharing at least one band
+        Entry best = null;
+        double bestSimilarity = 0;
+
+        for (int band = 0; indexed && band < bands; band++) {
+            List<Entry> bucket = buckets.get(getBucketKey(signature, band));
+
+            if (bucket == null) {
+                continue;
+            }
+
+            for (Entry candidate : bucket) {
+                double similarity = estimateSimilarity(signature, candidate.signature);
+
+                if (similarity >= similarityThreshold && similarity > bestSimilarity) {
+                    best = candidate;
+                    bestSimilarity = similarity;
+                }
+            }
+        }
+
+        Entry entry = new Entry(url, signature, indexed, best == null ? nextClusterId++ : best.clusterId, System.currentTimeMillis());
+        entries.put(url, entry);
+        arrivals.addLast(entry);
+
+        for (int band = 0; indexed && band < bands; band++) {
+            buckets.computeIfAbsent(getBucketKey(signature, band), key -> new ArrayList<>(2)).add(entry);
+        }
+
+        return entry.clusterId;
+    }
+
+    // Forgets articles first seen before the retention period
+    public synchronized void evictExpired() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+
+        while (!arrivals.isEmpty() && arrivals.peekFirst().firstSeen < cutoff) {
+            Entry entry = arrivals.removeFirst();
+            entries.remove(entry.url);
+
+            for (int band = 0; entry.indexed && band < bands; band++) {
+                long key = getBucketKey(entry.signature, band);
+                List<Entry> bucket = buckets.get(key);
+
+                bucket.remove(entry);
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private long[] sign(String title, String description, String publisher) {
+        Set<String> words = new HashSet<>();
+        addWords(words, title);
+
+        if (description != null) {
+            addWords(words, tagPattern.matcher(description).replaceAll(" "));
+        }
+
+        if (publisher != null) {
+            Set<String> publisherWords = new HashSet<>();
+            addWords(publisherWords, publisher);
+            words.removeAll(publisherWords);
+        }
+
+        long[] signature = new long[signatureSize];
+        Arrays.fill(signature, Long.MAX_VALUE);
+
+        for (String word : words) {
+            long hash = mix(word.hashCode());
+
+            for (int i = 0; i < signatureSize; i++) {
+                signature[i] = Math.min(signature[i], mix(hash ^ seeds[i]));
+            }
+        }
+
+        return signature;
+    }
+
+    private void addWords(Set<String> words, String text) {
+        if (text == null) {
+            return;
+        }
+
+        Matcher matcher = wordPattern.matcher(text.toLowerCase(Locale.ROOT));
+
+        while (matcher.find()) {
+            words.add(matcher.group());
+        }
+    }
+
+    // Fraction of MinHash values two signatures share (an estimate of the Jaccard similarity of their word sets)
+    private double estimateSimilarity(long[] a, long[] b) {
+        int matching = 0;
+
+        for (int i = 0; i < signatureSize; i++) {
+            if (a[i] == b[i]) {
+                matching++;
+            }
+        }
+
+        return (double) matching / signatureSize;
+    }
+
+    private long getBucketKey(long[] signature, int band) {
+        long key = band;
+
+        for (int row = band * rows; row < (band + 1) * rows; row++) {
+            key = mix(key * 31 + signature[row]);
+        }
+
+        return key;
+    }
+
+    // 64-bit finalizer from SplitMix64 (spreads similar inputs across the whole range)
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+
+        return value ^ (value >>> 31);
+    }
+
+    private static class Entry {
+        private final String url;
+        private final long[] signature;
+        // Whether the article is in the band buckets
+        private final boolean indexed;
+        private final long clusterId;
+        private final long firstSeen;
+
+        private Entry(String url, long[] signature, boolean indexed, long clusterId, long firstSeen) {
+            this.url = url;
+            this.signature = signature;
+            this.indexed = indexed;
+            this.clusterId = clusterId;
+            this.firstSeen = firstSeen;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.jdouglas9025.coinportfoliotracker.news;
+
+import com.jdouglas9025.coinportfoliotracker.entity.news.NewsEntity;
+import com.jdouglas9025.coinportfoliotracker.text.EnglishStopWords;
+import com.jdouglas9025.coinportfoliotracker.text.Stemmer;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Full-text index over one version of the news feed -- built once per refresh and published with the feed
+// Headlines are split into stemmed terms (stop words removed) with a posting list per term, and searches are ranked with BM25
+// Articles are also indexed by the coins they mention and presorted by date, so filters and date sorts never parse anything
+public class NewsIndex {
+    private static final Pattern wordPattern = Pattern.compile("[\\p{L}\\p{N}]+");
+    // BM25 parameters (the usual defaults): term frequency saturation and length normalization
+    private static final double k1 = 1.2;
+    private static final double b = 0.75;
+
+    // Start of the response body ('{"lastUpdated":...,"data":[')
+    private final byte[] prefix;
+    // Encoded JSON for each article (same order as the source list)
+    private final byte[][] encodedNews;
+    // Lowercase publisher of each article
+    private final String[] publishers;
+    // Publish time of each article (epoch milliseconds, null if unknown)
+    private final Long[] published;
+    // Number of terms in each headline and the average across headlines
+    private final int[] lengths;
+    private final double averageLength;
+    // Key: term, value: articles containing it and the term's count in each
+    private final Map<String, Posting> postings = new HashMap<>();
+    // Key: coin id, value: ascending positions of the articles mentioning it
+    private final Map<String, int[]> coinPostings = new HashMap<>();
+    // Article positions from newest to oldest (unknown dates last), and how many have a known date
+    private final int[] newestFirst;
+    private final int datedCount;
+
+    public NewsIndex(byte[] prefix, List<NewsEntity> news, byte[][] encodedNews) {
+        this.prefix = prefix;
+        this.encodedNews = encodedNews;
+
+        int size = news.size();
+        publishers = new String[size];
+        published = new Long[size];
+        lengths = new int[size];
+
+        Map<String, List<int[]>> termPostings = new HashMap<>();
+        Map<String, List<Integer>> mentions = new HashMap<>();
+        long totalLength = 0;
+
+        for (int i = 0; i < size; i++) {
+            NewsEntity article = news.get(i);
+
+            publishers[i] = article.publisherName == null ? null : article.publisherName.toLowerCase(Locale.ROOT);
+
+            Instant publishedDate = parsePublishedDate(article.publishedDate);
+            published[i] = publishedDate == null ? null : publishedDate.toEpochMilli();
+
+            List<String> terms = analyze(article.title);
+            lengths[i] = terms.size();
+            totalLength += terms.size();
+
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (String term : terms) {
+                counts.merge(term, 1, Integer::sum);
+            }
+
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                termPostings.computeIfAbsent(entry.getKey(), term -> new ArrayList<>()).add(new int[]{i, entry.getValue()});
+            }
+
+            if (article.coinIds != null) {
+                for (String coinId : article.coinIds) {
+                    mentions.computeIfAbsent(coinId, id -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+
+        averageLength = size == 0 ? 0 : (double) totalLength / size;
+
+        for (Map.Entry<String, List<int[]>> entry : termPostings.entrySet()) {
+            List<int[]> list = entry.getValue();
+            int[] positions = new int[list.size()];
+            int[] frequencies = new int[list.size()];
+
+            for (int i = 0; i < list.size(); i++) {
+                positions[i] = list.get(i)[0];
+                frequencies[i] = list.get(i)[1];
+            }
+
+            postings.put(entry.getKey(), new Posting(positions, frequencies));
+        }
+
+        for (Map.Entry<String, List<Integer>> entry : mentions.entrySet()) {
+            coinPostings.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        // Stable sort, so articles published at the same time keep their feed order
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+
+        Arrays.sort(order, (first, second) -> {
+            Long firstTime = published[first];
+            Long secondTime = published[second];
+
+            if (firstTime == null || secondTime == null) {
+                return firstTime == null ? (secondTime == null ? 0 : 1) : -1;
+            }
+
+            return Long.compare(secondTime, firstTime);
+        });
+
+        newestFirst = Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+        datedCount = (int) Arrays.stream(published).filter(time -> time != null).count();
+    }
+
+    // Returns the requested page of articles matching every given filter (null filters are ignored)
+    // 'q' matches articles containing any of its terms; 'from'/'to' are epoch milliseconds (inclusive)
+    // Relevance sorting without a search falls back to newest first
+    public NewsPage query(String q, String publisher, String coinId, Long from, Long to, NewsSortOption sort, int offset, int limit) {
+        return query(q, publisher, coinId, from, to, sort, offset, limit, encodedNews);
+    }
+
+    // Same as above using other encodings of the same articles (e.g., a field projection) in the same order
+    public NewsPage query(String q, String publisher, String coinId, Long from, Long to, NewsSortOption sort,
+                          int offset, int limit, byte[][] encoded) {
+        int size = encodedNews.length;
+        double[] scores = null;
+
+        if (q != null && !q.isBlank()) {
+            scores = score(q);
+        }
+
+        String publisherFilter = publisher == null || publisher.isBlank() ? null : publisher.trim().toLowerCase(Locale.ROOT);
+
+        boolean[] mentioned = null;
+        if (coinId != null) {
+            mentioned = new boolean[size];
+
+            for (int position : coinPostings.getOrDefault(coinId, new int[0])) {
+                mentioned[position] = true;
+            }
+        }
+
+        // Matching positions in the requested order
+        List<Integer> matches = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            // Oldest first walks the dated articles backwards, but unknown dates still come last
+            int position = sort == NewsSortOption.OLDEST && i < datedCount ? newestFirst[datedCount - 1 - i] : newestFirst[i];
+
+            if (scores != null && scores[position] <= 0) {
+                continue;
+            }
+
+            if (mentioned != null && !mentioned[position]) {
+                continue;
+            }
+
+            if (publisherFilter != null && !publisherFilter.equals(publishers[position])) {
+                continue;
+            }
+
+            if ((from != null || to != null) && !isWithin(published[position], from, to)) {
+                continue;
+            }
+
+            matches.add(position);
+        }
+
+        // Matches are already newest first, so a stable sort by score keeps newer articles ahead of equal scores
+        if (sort == NewsSortOption.RELEVANCE && scores != null) {
+            double[] finalScores = scores;
+            matches.sort((first, second) -> Double.compare(finalScores[second], finalScores[first]));
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.writeBytes(prefix);
+
+        int end = (int) Math.min((long) offset + limit, matches.size());
+        for (int i = offset; i < end; i++) {
+            if (i > offset) {
+                output.write(',');
+            }
+
+            output.writeBytes(encoded[matches.get(i)]);
+        }
+
+        output.write(']');
+        output.write('}');
+
+        return new NewsPage(output.toByteArray(), matches.size(), end < matches.size() ? end : -1);
+    }
+
+    public int size() {
+        return encodedNews.length;
+    }
+
+    // News dates use the RSS format (e.g., 'Mon, 14 Oct 2024 12:00:00 GMT') -- returns null if the date cannot be read
+    public static Instant parsePublishedDate(String publishedDate) {
+        if (publishedDate == null) {
+            return null;
+        }
+
+        try {
+            return ZonedDateTime.parse(publishedDate, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    // BM25 score of every article for the query (0 for articles sharing no term with it)
+    private double[] score(String q) {
+        int size = encodedNews.length;
+        double[] result = new double[size];
+
+        // Each distinct query term counts once
+        for (String term : new LinkedHashSet<>(analyze(q))) {
+            Posting posting = postings.get(term);
+
+            if (posting == null) {
+                continue;
+            }
+
+            int documentFrequency = posting.positions.length;
+            double idf = Math.log(1 + (size - documentFrequency + 0.5) / (documentFrequency + 0.5));
+
+            for (int i = 0; i < posting.positions.length; i++) {
+                int position = posting.positions[i];
+                int frequency = posting.frequencies[i];
+                double normalization = k1 * (1 - b + b * lengths[position] / averageLength);
+
+                result[position] += idf * frequency * (k1 + 1) / (frequency + normalization);
+            }
+        }
+
+        return result;
+    }
+
+    // Lowercase, stemmed terms of the text without stop words
+    private static List<String> analyze(String text) {
+        List<String> result = new ArrayList<>();
+
+        if (text == null) {
+            return result;
+        }
+
+        Matcher matcher = wordPattern.matcher(text.toLowerCase(Locale.ROOT));
+
+        while (matcher.find()) {
+            String word = matcher.group();
+
+            if (!EnglishStopWords.contains(word)) {
+                result.add(Stemmer.stem(word));
+            }
+        }
+
+        return result;
+    }
+
+    private boolean isWithin(Long time, Long from, Long to) {
+        return time != null && (from == null || time >= from) && (to == null || time <= to);
+    }
+
+    private static class Posting {
+        // Ascending article positions
+        private final int[] positions;
+        // Number of times the term appears in each article
+        private final int[] frequencies;
+
+        private Posting(int[] positions, int[] frequencies) {
+            this.positions = positions;
+            this.frequencies = frequencies;
+        }
+    }
+
+    // Encoded response body for a page of articles, the total number of matches, and where the next page starts (-1 if none)
+    public static class NewsPage {
+        private final byte[] json;
+        private final int total;
+        private final int nextOffset;
+
+        public NewsPage(byte[] json, int total, int nextOffset) {
+            this.json = json;
+            this.total = total;
+            this.nextOffset = nextOffset;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getNextOffset() {
+            return nextOffset;
+        }
+    }
+}
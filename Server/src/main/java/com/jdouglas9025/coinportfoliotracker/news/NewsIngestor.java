@@ -0,0 +1,227 @@
+package com.jdouglas9025.coinportfoliotracker.news;
+
+import com.jdouglas9025.coinportfoliotracker.entity.news.containers.RawNewsEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Collects articles from every news source and finds each article's header image
+// Sources and article pages are fetched concurrently on virtual threads, with at most a few pages in flight per host
+// Images already found on an earlier run come from the article cache, so only new articles cost a page fetch
+public class NewsIngestor {
+    private final Logger logger = LoggerFactory.getLogger(NewsIngestor.class);
+
+    private static final Duration pageTimeout = Duration.ofSeconds(10);
+    // Header images are declared in <head>, so there is no need to read further into a page than this
+    private static final int maxPageBytes = 256 * 1024;
+    // Open Graph / Twitter card image tags (attributes in either order)
+    private static final Pattern imagePattern = Pattern.compile(
+            "<meta\\s[^>]*?(?:property|name)\\s*=\\s*[\"'](?:og:image|og:image:url|twitter:image)[\"'][^>]*?content\\s*=\\s*[\"']([^\"']+)[\"']"
+                    + "|<meta\\s[^>]*?content\\s*=\\s*[\"']([^\"']+)[\"'][^>]*?(?:property|name)\\s*=\\s*[\"'](?:og:image|og:image:url|twitter:image)[\"']",
+            Pattern.CASE_INSENSITIVE);
+
+    private final HttpClient client;
+    private final List<NewsSource> sources;
+    private final ArticleMetadataCache cache;
+    // Most pages fetched from a single host at once
+    private final int perHostLimit;
+
+    public NewsIngestor(HttpClient client, List<NewsSource> sources, ArticleMetadataCache cache, int perHostLimit) {
+        this.client = client;
+        this.sources = sources;
+        this.cache = cache;
+        this.perHostLimit = perHostLimit;
+    }
+
+    // Returns the articles from all sources (duplicate headlines removed, order shuffled to mix topics)
+    // Articles whose page could not be fetched are left out, the same as the previous scraper
+    public List<RawNewsEntity> ingest() throws InterruptedException {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<RawNewsEntity> articles = fetchSources(executor);
+            List<RawNewsEntity> result = fetchImages(executor, articles);
+
+            try {
+                cache.save();
+            } catch (IOException e) {
+                logger.warn("Unable to save article cache: {}", e.toString());
+            }
+
+            Collections.shuffle(result);
+
+            return result;
+        }
+    }
+
+    private List<RawNewsEntity> fetchSources(ExecutorService executor) throws InterruptedException {
+        List<Future<List<RawNewsEntity>>> futures = new ArrayList<>();
+        for (NewsSource source : sources) {
+            futures.add(executor.submit(() -> source.fetch(client)));
+        }
+
+        // Sources are kept in order so earlier (primary) sources win when the same headline appears twice
+        List<RawNewsEntity> result = new ArrayList<>();
+        Set<String> headlines = new HashSet<>();
+
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                for (RawNewsEntity article : futures.get(i).get()) {
+                    if (headlines.add(article.title)) {
+                        result.add(article);
+                    }
+                }
+            } catch (ExecutionException e) {
+                logger.warn("News source '{}' failed: {}", sources.get(i).getName(), e.getCause().toString());
+            }
+        }
+
+        return result;
+    }
+
+    private List<RawNewsEntity> fetchImages(ExecutorService executor, List<RawNewsEntity> articles) throws InterruptedException {
+        Map<String, Semaphore> hostLimits = new ConcurrentHashMap<>();
+        List<Future<Boolean>> futures = new ArrayList<>();
+
+        for (RawNewsEntity article : articles) {
+            ArticleMetadataCache.CachedArticle cached = cache.get(article.url);
+
+            if (cached != null) {
+                article.imageUrl = cached.imageUrl;
+                futures.add(null);
+                continue;
+            }
+
+            Semaphore limit = hostLimits.computeIfAbsent(getHost(article), key -> new Semaphore(perHostLimit));
+
+            futures.add(executor.submit(() -> {
+                limit.acquire();
+
+                try {
+                    return fetchImage(article);
+                } finally {
+                    limit.release();
+                }
+            }));
+        }
+
+        List<RawNewsEntity> result = new ArrayList<>();
+
+        for (int i = 0; i < articles.size(); i++) {
+            Future<Boolean> future = futures.get(i);
+
+            try {
+                if (future == null || future.get()) {
+                    result.add(articles.get(i));
+                }
+            } catch (ExecutionException ignored) {
+                // Page could not be fetched -- tried again on the next run since nothing was cached
+            }
+        }
+
+        return result;
+    }
+
+    // Fetches the article page and caches its header image
+    // Returns false if the page could not be fetched
+    private boolean fetchImage(RawNewsEntity article) throws IOException, InterruptedException {
+        URI uri = URI.create(article.url);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .GET()
+                .uri(uri)
+                .timeout(pageTimeout)
+                .build();
+
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        String head;
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                return false;
+            }
+
+            head = readHead(body);
+        }
+
+        String imageUrl = findImage(head, response.uri());
+        article.imageUrl = imageUrl;
+        cache.put(article.url, imageUrl);
+
+        return true;
+    }
+
+    // Reads the page up to the end of <head> (or maxPageBytes, whichever comes first)
+    private String readHead(InputStream body) throws IOException {
+        byte[] buffer = new byte[maxPageBytes];
+        int length = 0;
+
+        while (length < buffer.length) {
+            int read = body.read(buffer, length, buffer.length - length);
+
+            if (read < 0) {
+                break;
+            }
+
+            // Check only the newly read bytes (plus a little overlap) for the closing tag
+            int searchFrom = Math.max(0, length - 7);
+            length += read;
+
+            if (new String(buffer, searchFrom, length - searchFrom, StandardCharsets.ISO_8859_1).toLowerCase(Locale.ROOT).contains("</head>")) {
+                break;
+            }
+        }
+
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private String findImage(String head, URI pageUri) {
+        Matcher matcher = imagePattern.matcher(head);
+
+        if (!matcher.find()) {
+            return null;
+        }
+
+        String image = (matcher.group(1) != null ? matcher.group(1) : matcher.group(2)).trim().replace("&amp;", "&");
+
+        // Relative image paths are resolved against the (possibly redirected) page URL
+        try {
+            return pageUri.resolve(image).toString();
+        } catch (IllegalArgumentException ignored) {
+            return null;
+        }
+    }
+
+    // Host the article page is requested from -- not the publisher, since feed links (e.g., Google News) all point at the
+    // feed's own host and only redirect to the publisher from there
+    private String getHost(RawNewsEntity article) {
+        try {
+            String host = URI.create(article.url).getHost();
+
+            return host == null ? "" : host.toLowerCase(Locale.ROOT);
+        } catch (IllegalArgumentException ignored) {
+            return "";
+        }
+    }
+}
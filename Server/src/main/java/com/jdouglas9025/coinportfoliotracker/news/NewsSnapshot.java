@@ -0,0 +1,27 @@
+package com.jdouglas9025.coinportfoliotracker.news;
+
+import com.jdouglas9025.coinportfoliotracker.entity.news.NewsEntity;
+import com.jdouglas9025.coinportfoliotracker.snapshot.DatasetSnapshot;
+import com.jdouglas9025.coinportfoliotracker.snapshot.ResponseSnapshot;
+
+import java.util.List;
+
+// Point-in-time view of the news feed with the search index built from it, published together with a single reference swap
+public class NewsSnapshot extends DatasetSnapshot<List<NewsEntity>> {
+    private final NewsIndex newsIndex;
+
+    public NewsSnapshot(List<NewsEntity> news, String lastUpdated, ResponseSnapshot response, NewsIndex newsIndex) {
+        super(news, lastUpdated, response);
+
+        this.newsIndex = newsIndex;
+    }
+
+    // Snapshot served before the first refresh (no articles, no index)
+    public static NewsSnapshot empty(ResponseSnapshot emptyResponse) {
+        return new NewsSnapshot(null, null, emptyResponse, null);
+    }
+
+    public NewsIndex getNewsIndex() {
+        return newsIndex;
+    }
+}
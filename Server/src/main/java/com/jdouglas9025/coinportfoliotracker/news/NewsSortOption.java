@@ -0,0 +1,32 @@
+package com.jdouglas9025.coinportfoliotracker.news;
+
+// Sort orders supported by the news endpoint
+public enum NewsSortOption {
+    // Best search matches first (newest first among equal matches) -- the default when searching
+    RELEVANCE("relevance"),
+    // Default when not searching
+    NEWEST("newest"),
+    OLDEST("oldest");
+
+    // Value used in the 'sort' query parameter
+    private final String param;
+
+    NewsSortOption(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    // Returns the matching option, or null if the parameter is not supported
+    public static NewsSortOption fromParam(String param) {
+        for (NewsSortOption option : values()) {
+            if (option.param.equalsIgnoreCase(param)) {
+                return option;
+            }
+        }
+
+        return null;
+    }
+}
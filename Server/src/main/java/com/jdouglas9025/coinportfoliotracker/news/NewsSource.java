@@ -0,0 +1,16 @@
+package com.jdouglas9025.coinportfoliotracker.news;
+
+import com.jdouglas9025.coinportfoliotracker.entity.news.containers.RawNewsEntity;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.List;
+
+// A feed of news articles (e.g., one Google News search)
+// Each source only lists articles -- header images are looked up by the ingestor, so sources stay simple to add
+public interface NewsSource {
+    // Name used in logs
+    String getName();
+
+    List<RawNewsEntity> fetch(HttpClient client) throws IOException, InterruptedException;
+}
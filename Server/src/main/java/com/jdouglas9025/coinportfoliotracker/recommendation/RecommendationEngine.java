@@ -0,0 +1,230 @@
+package com.jdouglas9025.coinportfoliotracker.recommendation;
+
+import com.jdouglas9025.coinportfoliotracker.text.EnglishStopWords;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Recommends similar coins by comparing their descriptions (TF-IDF weighted terms, cosine similarity)
+// Each description is kept as sparse term counts with an inverted index (term -> descriptions containing it), so finding
+// the most similar coins only touches descriptions that share a term -- memory grows with the number of terms, not coins squared
+// Descriptions can be added, changed, or removed one at a time; only that description's terms are re-indexed
+public class RecommendationEngine {
+    // Same tokenizing as scikit-learn's TfidfVectorizer: words of 2+ letters/digits, lowercased, English stop words removed
+    private static final Pattern tokenPattern = Pattern.compile("\\b\\w\\w+\\b", Pattern.UNICODE_CHARACTER_CLASS);
+
+    // Key: coin id
+    private final Map<String, Document> documents = new HashMap<>();
+    // Key: term, value: number of descriptions containing it
+    private final Map<String, Integer> documentFrequencies = new HashMap<>();
+    // Key: term, value: descriptions containing it (with the term's count in each)
+    private final Map<String, Map<String, Integer>> postings = new HashMap<>();
+
+    // Adds or replaces a coin's description (null/empty removes it)
+    // Returns true if the index changed
+    public synchronized boolean update(String coinId, String description) {
+        Document existing = documents.get(coinId);
+
+        if (description == null || description.isBlank()) {
+            return remove(coinId);
+        }
+
+        if (existing != null && existing.description.equals(description)) {
+            return false;
+        }
+
+        if (existing != null) {
+            unindex(coinId, existing);
+        }
+
+        Document document = new Document(description, tokenize(description));
+        documents.put(coinId, document);
+
+        for (Map.Entry<String, Integer> entry : document.termCounts.entrySet()) {
+            documentFrequencies.merge(entry.getKey(), 1, Integer::sum);
+            postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).put(coinId, entry.getValue());
+        }
+
+        return true;
+    }
+
+    public synchronized boolean remove(String coinId) {
+        Document existing = documents.remove(coinId);
+
+        if (existing == null) {
+            return false;
+        }
+
+        unindex(coinId, existing);
+
+        return true;
+    }
+
+    // Makes the indexed descriptions match the given map (key: coin id), re-indexing only descriptions that changed
+    // Returns true if the index changed
+    public synchronized boolean sync(Map<String, String> descriptions) {
+        boolean changed = false;
+
+        for (String coinId : List.copyOf(documents.keySet())) {
+            if (!descriptions.containsKey(coinId)) {
+                changed |= remove(coinId);
+            }
+        }
+
+        for (Map.Entry<String, String> entry : descriptions.entrySet()) {
+            changed |= update(entry.getKey(), entry.getValue());
+        }
+
+        return changed;
+    }
+
+    public synchronized int size() {
+        return documents.size();
+    }
+
+    // Finds the 'count' most similar coins for every indexed coin (coins with no shared terms are never recommended)
+    // Coins are scored in parallel; each keeps only its best 'count' matches in a bounded heap
+    public synchronized Map<String, String[]> recommendAll(int count) {
+        int size = documents.size();
+
+        // Weights use the current document frequencies: tf * idf, where idf = ln((1 + n) / (1 + df)) + 1 (smoothed)
+        Map<String, Double> idfs = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : documentFrequencies.entrySet()) {
+            idfs.put(entry.getKey(), Math.log((1.0 + size) / (1.0 + entry.getValue())) + 1);
+        }
+
+        // Vector length of each description (for normalizing to cosine similarity)
+        Map<String, Double> norms = new HashMap<>();
+        for (Map.Entry<String, Document> entry : documents.entrySet()) {
+            double sum = 0;
+
+            for (Map.Entry<String, Integer> term : entry.getValue().termCounts.entrySet()) {
+                double weight = term.getValue() * idfs.get(term.getKey());
+                sum += weight * weight;
+            }
+
+            norms.put(entry.getKey(), Math.sqrt(sum));
+        }
+
+        Map<String, String[]> result = new ConcurrentHashMap<>();
+
+        documents.entrySet().parallelStream().forEach(entry -> {
+            String[] matches = findSimilar(entry.getKey(), entry.getValue(), idfs, norms, count);
+
+            if (matches.length > 0) {
+                result.put(entry.getKey(), matches);
+            }
+        });
+
+        return new HashMap<>(result);
+    }
+
+    private String[] findSimilar(String coinId, Document document, Map<String, Double> idfs, Map<String, Double> norms, int count) {
+        double norm = norms.get(coinId);
+
+        if (norm == 0) {
+            return new String[0];
+        }
+
+        // Accumulate dot products with every description sharing at least one term
+        Map<String, Double> scores = new HashMap<>();
+
+        for (Map.Entry<String, Integer> term : document.termCounts.entrySet()) {
+            double idf = idfs.get(term.getKey());
+            double queryWeight = term.getValue() * idf;
+
+            for (Map.Entry<String, Integer> posting : postings.get(term.getKey()).entrySet()) {
+                if (!posting.getKey().equals(coinId)) {
+                    scores.merge(posting.getKey(), queryWeight * posting.getValue() * idf, Double::sum);
+                }
+            }
+        }
+
+        // Min-heap of the best matches so far (ties broken by coin id so results are stable between runs)
+        PriorityQueue<Match> heap = new PriorityQueue<>(count + 1);
+
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            Match match = new Match(entry.getKey(), entry.getValue() / (norm * norms.get(entry.getKey())));
+
+            if (heap.size() < count) {
+                heap.add(match);
+            } else if (match.compareTo(heap.peek()) > 0) {
+                heap.poll();
+                heap.add(match);
+            }
+        }
+
+        // Heap polls worst first, so fill from the end
+        String[] result = new String[heap.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = heap.poll().coinId;
+        }
+
+        return result;
+    }
+
+    private void unindex(String coinId, Document document) {
+        for (String term : document.termCounts.keySet()) {
+            if (documentFrequencies.merge(term, -1, Integer::sum) <= 0) {
+                documentFrequencies.remove(term);
+            }
+
+            Map<String, Integer> termPostings = postings.get(term);
+            termPostings.remove(coinId);
+
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private Map<String, Integer> tokenize(String description) {
+        Map<String, Integer> result = new HashMap<>();
+        Matcher matcher = tokenPattern.matcher(description.toLowerCase(Locale.ROOT));
+
+        while (matcher.find()) {
+            String token = matcher.group();
+
+            if (!EnglishStopWords.contains(token)) {
+                result.merge(token, 1, Integer::sum);
+            }
+        }
+
+        return result;
+    }
+
+    private static class Document {
+        private final String description;
+        // Key: term, value: number of times it appears
+        private final Map<String, Integer> termCounts;
+
+        private Document(String description, Map<String, Integer> termCounts) {
+            this.description = description;
+            this.termCounts = termCounts;
+        }
+    }
+
+    private static class Match implements Comparable<Match> {
+        private final String coinId;
+        private final double score;
+
+        private Match(String coinId, double score) {
+            this.coinId = coinId;
+            this.score = score;
+        }
+
+        // Higher score is better; on a tie, the smaller coin id is better
+        @Override
+        public int compareTo(Match other) {
+            int comparison = Double.compare(score, other.score);
+
+            return comparison != 0 ? comparison : other.coinId.compareTo(coinId);
+        }
+    }
+}
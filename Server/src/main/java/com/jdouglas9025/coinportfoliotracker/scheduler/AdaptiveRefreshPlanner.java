@@ -0,0 +1,135 @@
+package com.jdouglas9025.coinportfoliotracker.scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Decides how often each metered dataset is refreshed from its demand and the API calls left this month
+// The even pace spreads the calls left (less a share reserved for the other jobs) evenly over the rest of the month;
+// datasets clients are actively requesting refresh faster than that, and idle datasets slower, so the calls saved while
+// idle are spent at peak times
+// The pace is recomputed from the calls actually left on every check, so spending ahead of pace slows later refreshes,
+// and a refresh never starts unless its calls (counting every retry and hedged call it may make) fit in what is left
+// without touching the reserve
+public class AdaptiveRefreshPlanner {
+    private final ApiCallBudget budget;
+    // Calls per month set aside for jobs not planned here (e.g., metadata and trending coins), which may spend into it
+    private final int reservedMonthlyCalls;
+    // Refreshes are never closer together than the minimum, and idle datasets wait at most the maximum while the budget allows
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    // Demand (requests per minute) at or above which a dataset is active, and at or below which it is idle
+    private final double activeDemand;
+    private final double idleDemand;
+    // Multipliers of the even pace for active and idle datasets
+    private final double activeFactor;
+    private final double idleFactor;
+
+    // Key: job name
+    private final Map<String, PlannedJob> jobs = new ConcurrentHashMap<>();
+
+    public AdaptiveRefreshPlanner(ApiCallBudget budget, int reservedMonthlyCalls, Duration minInterval, Duration maxInterval,
+                                  double activeDemand, double idleDemand, double activeFactor, double idleFactor) {
+        this.budget = budget;
+        this.reservedMonthlyCalls = reservedMonthlyCalls;
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.activeDemand = activeDemand;
+        this.idleDemand = idleDemand;
+        this.activeFactor = activeFactor;
+        this.idleFactor = idleFactor;
+    }
+
+    // Adds a job with the number of calls each of its refreshes normally makes (used for the pace), and the most it can make
+    // once every call is retried and hedged (used to keep a refresh out of the reserve)
+    public void register(String job, int callsPerRefresh, int maxCallsPerRefresh) {
+        jobs.putIfAbsent(job, new PlannedJob(callsPerRefresh, maxCallsPerRefresh));
+    }
+
+    // Records that a refresh of the job started (or, for restored data, when the data was fetched)
+    public void recordRefresh(String job, Instant time) {
+        getJob(job).lastRefresh = time;
+    }
+
+    // Whether the job should be refreshed now given its demand (requests per minute)
+    public boolean isDue(String job, double demand) {
+        PlannedJob plannedJob = getJob(job);
+        Duration interval = getInterval(demand);
+
+        if (interval == null || !budget.canSpend(plannedJob.maxCallsPerRefresh + getReservedCalls())) {
+            return false;
+        }
+
+        return plannedJob.lastRefresh == null || !Instant.now().isBefore(plannedJob.lastRefresh.plus(interval));
+    }
+
+    // Expected time of the job's next refresh at its current demand (null if the budget is spent for the month)
+    public Instant getNextRefresh(String job, double demand) {
+        PlannedJob plannedJob = getJob(job);
+        Duration interval = getInterval(demand);
+
+        if (interval == null) {
+            return null;
+        }
+
+        Instant now = Instant.now();
+        Instant next = plannedJob.lastRefresh == null ? now : plannedJob.lastRefresh.plus(interval);
+
+        return next.isBefore(now) ? now : next;
+    }
+
+    // Interval between refreshes at the demand, or null if no calls are left beyond the reserve
+    public Duration getInterval(double demand) {
+        int callsPerRound = 0;
+        for (PlannedJob job : jobs.values()) {
+            callsPerRound += job.callsPerRefresh;
+        }
+
+        double available = budget.getRemaining() - getReservedCalls();
+        if (callsPerRound == 0 || available < callsPerRound) {
+            return null;
+        }
+
+        // Every planned job refreshing once per interval spends the available calls evenly over the rest of the month
+        double rounds = available / callsPerRound;
+        double evenMillis = budget.getRemainingTime().toMillis() / rounds;
+
+        double factor = demand >= activeDemand ? activeFactor : (demand <= idleDemand ? idleFactor : 1);
+        double intervalMillis = evenMillis * factor;
+
+        // Idle datasets are still refreshed within the maximum, unless even that would be faster than the budget allows
+        intervalMillis = Math.min(intervalMillis, Math.max(maxInterval.toMillis(), evenMillis));
+        intervalMillis = Math.max(intervalMillis, minInterval.toMillis());
+
+        return Duration.ofMillis((long) intervalMillis);
+    }
+
+    // Share of the reserve for the rest of the month
+    private int getReservedCalls() {
+        double remainingFraction = (double) budget.getRemainingTime().toMillis() / budget.getMonthLength().toMillis();
+
+        return (int) Math.ceil(reservedMonthlyCalls * remainingFraction);
+    }
+
+    private PlannedJob getJob(String name) {
+        PlannedJob job = jobs.get(name);
+
+        if (job == null) {
+            throw new IllegalArgumentException("Unknown planned job: " + name);
+        }
+
+        return job;
+    }
+
+    private static class PlannedJob {
+        private final int callsPerRefresh;
+        private final int maxCallsPerRefresh;
+        private volatile Instant lastRefresh;
+
+        private PlannedJob(int callsPerRefresh, int maxCallsPerRefresh) {
+            this.callsPerRefresh = callsPerRefresh;
+            this.maxCallsPerRefresh = maxCallsPerRefresh;
+        }
+    }
+}
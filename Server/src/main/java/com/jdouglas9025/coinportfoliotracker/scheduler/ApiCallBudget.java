@@ -0,0 +1,136 @@
+package com.jdouglas9025.coinportfoliotracker.scheduler;
+
+import com.google.gson.Gson;
+import com.jdouglas9025.coinportfoliotracker.snapshot.DurableFiles;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+// Counts the calls made to a metered API in the current calendar month (UTC, when the quota resets) against its monthly quota
+// The count is kept on disk so restarts do not forget calls already spent
+public class ApiCallBudget {
+    private final Gson gson = new Gson();
+    private final Path path;
+    private final int monthlyQuota;
+
+    private YearMonth month;
+    private int spent;
+    // Set when calls were recorded since the last save
+    private boolean unsaved;
+
+    private ApiCallBudget(Path path, int monthlyQuota) {
+        this.path = path;
+        this.monthlyQuota = monthlyQuota;
+        this.month = YearMonth.now(ZoneOffset.UTC);
+    }
+
+    // Loads the count for the current month if saved (a missing file, unreadable file, or count from an earlier month starts at 0)
+    public static ApiCallBudget open(Path path, int monthlyQuota) {
+        ApiCallBudget budget = new ApiCallBudget(path, monthlyQuota);
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            SavedBudget saved = budget.gson.fromJson(reader, SavedBudget.class);
+
+            if (saved != null && budget.month.toString().equals(saved.month)) {
+                budget.spent = saved.spent;
+            }
+        } catch (NoSuchFileException ignored) {
+        } catch (Exception ignored) {
+            // Corrupt file -- rebuilt on the next save
+        }
+
+        return budget;
+    }
+
+    // Call once per request sent (including retries)
+    public synchronized void record(int calls) {
+        rollOver();
+
+        spent += calls;
+        unsaved = true;
+    }
+
+    // Whether the calls fit in what is left of this month's quota
+    public synchronized boolean canSpend(int calls) {
+        rollOver();
+
+        return spent + calls <= monthlyQuota;
+    }
+
+    public synchronized int getSpent() {
+        rollOver();
+
+        return spent;
+    }
+
+    public synchronized int getRemaining() {
+        rollOver();
+
+        return Math.max(0, monthlyQuota - spent);
+    }
+
+    public int getMonthlyQuota() {
+        return monthlyQuota;
+    }
+
+    // Time left until the quota resets
+    public Duration getRemainingTime() {
+        Instant now = Instant.now();
+        Instant reset = YearMonth.now(ZoneOffset.UTC).plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+
+        return Duration.between(now, reset);
+    }
+
+    // Length of the current month
+    public Duration getMonthLength() {
+        return Duration.ofDays(YearMonth.now(ZoneOffset.UTC).lengthOfMonth());
+    }
+
+    // Writes the count to a temporary file, then renames it over the budget file (skipped if nothing changed)
+    public synchronized void save() throws IOException {
+        if (!unsaved) {
+            return;
+        }
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            gson.toJson(new SavedBudget(month.toString(), spent), writer);
+        }
+
+        DurableFiles.replace(temporary, path);
+        unsaved = false;
+    }
+
+    // Starts a new count when the month changes
+    private void rollOver() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+
+        if (!current.equals(month)) {
+            month = current;
+            spent = 0;
+            unsaved = true;
+        }
+    }
+
+    private static class SavedBudget {
+        // 'yyyy-MM'
+        private String month;
+        private int spent;
+
+        private SavedBudget(String month, int spent) {
+            this.month = month;
+            this.spent = spent;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.jdouglas9025.coinportfoliotracker.scheduler;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Estimates how often clients are requesting each dataset, so refreshes can follow demand
+// Each request adds to a count that decays exponentially (half-life of 10 minutes), so the estimate follows recent traffic
+// and falls to zero once clients go idle
+@Component
+public class DemandTracker {
+    // Datasets with tracked demand
+    public static final String marketDemand = "market";
+    public static final String globalDataDemand = "global";
+
+    private static final double halfLifeMinutes = 10;
+    // Decay per minute (ln 2 / half-life) -- a steady rate of r requests per minute settles at a count of r / decayRate
+    private static final double decayRate = Math.log(2) / halfLifeMinutes;
+
+    // Key: dataset
+    private final Map<String, DecayingCount> counts = new ConcurrentHashMap<>();
+
+    public void record(String dataset) {
+        counts.computeIfAbsent(dataset, key -> new DecayingCount()).add(System.currentTimeMillis());
+    }
+
+    // Estimated requests per minute over roughly the last half-life
+    public double getRate(String dataset) {
+        DecayingCount count = counts.get(dataset);
+
+        return count == null ? 0 : count.get(System.currentTimeMillis()) * decayRate;
+    }
+
+    private static class DecayingCount {
+        private double value;
+        private long lastUpdated;
+
+        private synchronized void add(long now) {
+            decay(now);
+            value += 1;
+        }
+
+        private synchronized double get(long now) {
+            decay(now);
+
+            return value;
+        }
+
+        private void decay(long now) {
+            double minutes = Math.max(0, now - lastUpdated) / 60000.0;
+
+            value *= Math.exp(-decayRate * minutes);
+            lastUpdated = now;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.jdouglas9025.coinportfoliotracker.scheduler;
+
+import com.jdouglas9025.coinportfoliotracker.entity.status.RefreshJobStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs background refresh jobs on virtual threads
+// Each job is single-flight: a tick that fires while the previous run is still going is coalesced into that run
+// Runs that exceed their job's timeout are interrupted, and all runs are cancelled on shutdown
+@Component
+public class RefreshScheduler implements DisposableBean {
+    private final Logger logger = LoggerFactory.getLogger(RefreshScheduler.class);
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("refresh-", 0).factory());
+    // Only enforces timeouts and delayed submissions -- the jobs themselves run on the virtual thread executor
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "refresh-timer");
+        thread.setDaemon(true);
+
+        return thread;
+    });
+
+    // Key: job name
+    private final Map<String, RefreshJob> jobs = new ConcurrentHashMap<>();
+
+    // Registers a job with the maximum time a single run may take
+    public void register(String name, Duration timeout) {
+        jobs.putIfAbsent(name, new RefreshJob(name, timeout));
+    }
+
+    // Starts a run of the job unless one is already in progress
+    // Returns false if the tick was coalesced into a running run (or the scheduler is shut down)
+    public boolean submit(String name, RefreshTask task) {
+        RefreshJob job = getJob(name);
+
+        if (!job.running.compareAndSet(false, true)) {
+            job.coalescedTicks.incrementAndGet();
+
+            return false;
+        }
+
+        try {
+            job.lastStarted = Instant.now();
+            executor.submit(() -> execute(job, task));
+        } catch (Exception e) {
+            // Executor rejects new work once shut down
+            job.running.set(false);
+
+            return false;
+        }
+
+        return true;
+    }
+
+    // Submits the job after a delay without holding a thread while waiting
+    public void submitLater(String name, RefreshTask task, Duration delay) {
+        getJob(name);
+
+        try {
+            timer.schedule(() -> submit(name, task), delay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception ignored) {
+            // Timer rejects new work once shut down
+        }
+    }
+
+    // Whether any run of the job has published new data since boot
+    public boolean hasPublished(String name) {
+        return getJob(name).lastSuccess != null;
+    }
+
+    public List<RefreshJobStatus> getStatuses() {
+        List<RefreshJobStatus> result = new ArrayList<>();
+
+        for (RefreshJob job : jobs.values()) {
+            result.add(job.toStatus());
+        }
+
+        result.sort((a, b) -> a.name.compareTo(b.name));
+
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        // Interrupts every running job
+        timer.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private void execute(RefreshJob job, RefreshTask task) {
+        Thread current = Thread.currentThread();
+        job.runner = current;
+        job.timedOut = false;
+
+        // Interrupt the run if it takes longer than the job allows
+        ScheduledFuture<?> timeout = timer.schedule(() -> {
+            if (job.running.get() && job.runner == current) {
+                job.timedOut = true;
+                current.interrupt();
+            }
+        }, job.timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+
+        try {
+            boolean published = task.run();
+
+            if (job.timedOut) {
+                recordTimeout(job);
+            } else if (published) {
+                job.lastSuccess = Instant.now();
+            }
+        } catch (InterruptedException e) {
+            if (job.timedOut) {
+                recordTimeout(job);
+            }
+        } catch (Exception e) {
+            if (job.timedOut) {
+                recordTimeout(job);
+            } else {
+                job.failures.incrementAndGet();
+                job.lastFailure = Instant.now();
+
+                logger.warn("Refresh job '{}' failed: {}", job.name, e.toString());
+            }
+        } finally {
+            timeout.cancel(false);
+
+            job.lastDurationMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            job.runs.incrementAndGet();
+            job.runner = null;
+            job.running.set(false);
+
+            // Clear any interrupt from a timeout that fired as the run was finishing
+            Thread.interrupted();
+        }
+    }
+
+    private void recordTimeout(RefreshJob job) {
+        job.timeouts.incrementAndGet();
+        job.lastFailure = Instant.now();
+
+        logger.warn("Refresh job '{}' timed out after {}", job.name, job.timeout);
+    }
+
+    private RefreshJob getJob(String name) {
+        RefreshJob job = jobs.get(name);
+
+        if (job == null) {
+            throw new IllegalArgumentException("Unknown refresh job: " + name);
+        }
+
+        return job;
+    }
+
+    private static class RefreshJob {
+        private final String name;
+        private final Duration timeout;
+        private final AtomicBoolean running = new AtomicBoolean(false);
+        private final AtomicLong runs = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong coalescedTicks = new AtomicLong();
+
+        private volatile Thread runner;
+        private volatile boolean timedOut;
+        private volatile Instant lastStarted;
+        private volatile Long lastDurationMillis;
+        private volatile Instant lastSuccess;
+        private volatile Instant lastFailure;
+
+        private RefreshJob(String name, Duration timeout) {
+            this.name = name;
+            this.timeout = timeout;
+        }
+
+        private RefreshJobStatus toStatus() {
+            return new RefreshJobStatus(name, running.get(), format(lastStarted), lastDurationMillis, format(lastSuccess),
+                    format(lastFailure), runs.get(), failures.get(), timeouts.get(), coalescedTicks.get());
+        }
+
+        private String format(Instant instant) {
+            return instant == null ? null : instant.toString();
+        }
+    }
+}
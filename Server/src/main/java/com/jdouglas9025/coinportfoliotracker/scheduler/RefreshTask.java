@@ -0,0 +1,8 @@
+package com.jdouglas9025.coinportfoliotracker.scheduler;
+
+// Work performed by a refresh job
+// Returns true if new data was published, false if the run finished without new data (e.g., upstream returned an error)
+@FunctionalInterface
+public interface RefreshTask {
+    boolean run() throws Exception;
+}
@@ -0,0 +1,73 @@
+package com.jdouglas9025.coinportfoliotracker.scheduler;
+
+import java.time.Duration;
+
+// Paces calls to a rate-limited API: holds up to 'capacity' tokens, refilled evenly over each period, and each call takes one
+// A full bucket allows a short burst, after which calls are spread out at the refill rate rather than sent in fixed batches
+// Meant for refresh jobs on virtual threads, where waiting for a token does not hold a platform thread
+public class TokenBucket {
+    private final int capacity;
+    // Time to refill one token
+    private final long nanosPerToken;
+
+    private double tokens;
+    private long lastRefill;
+    // No tokens are handed out before this time (set when upstream asks callers to back off)
+    private long pausedUntil;
+
+    public TokenBucket(int capacity, Duration period) {
+        this.capacity = capacity;
+        this.nanosPerToken = period.toNanos() / capacity;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+        this.pausedUntil = lastRefill;
+    }
+
+    // Waits until a token is available, then takes it
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long wait;
+
+            synchronized (this) {
+                refill();
+
+                long now = System.nanoTime();
+                if (now - pausedUntil >= 0 && tokens >= 1) {
+                    tokens -= 1;
+
+                    return;
+                }
+
+                // Time until the pause ends or the next token is refilled (whichever is later)
+                wait = Math.max(pausedUntil - now, (long) ((1 - tokens) * nanosPerToken));
+            }
+
+            Thread.sleep(Duration.ofNanos(Math.max(wait, 1_000_000)));
+        }
+    }
+
+    // Empties the bucket and hands out no tokens for the given time (e.g., after a 429 response)
+    public synchronized void pause(Duration duration) {
+        refill();
+
+        tokens = 0;
+        pausedUntil = Math.max(pausedUntil, System.nanoTime() + duration.toNanos());
+    }
+
+    public synchronized int getAvailableTokens() {
+        refill();
+
+        return (int) tokens;
+    }
+
+    // Tokens only start refilling once a pause ends, so a pause is not followed by a full burst
+    private void refill() {
+        long now = System.nanoTime();
+        long start = pausedUntil - lastRefill > 0 ? pausedUntil : lastRefill;
+
+        if (now - start > 0) {
+            tokens = Math.min(capacity, tokens + (double) (now - start) / nanosPerToken);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.jdouglas9025.coinportfoliotracker.snapshot;
+
+// Point-in-time view of a dataset: the data, when it was last updated, and its pre-encoded response
+// Built completely before being published, then never modified, so readers need no locking
+public class DatasetSnapshot<T> {
+    private final T data;
+    private final String lastUpdated;
+    private final ResponseSnapshot response;
+
+    public DatasetSnapshot(T data, String lastUpdated, ResponseSnapshot response) {
+        this.data = data;
+        this.lastUpdated = lastUpdated;
+        this.response = response;
+    }
+
+    public T getData() {
+        return data;
+    }
+
+    public String getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public ResponseSnapshot getResponse() {
+        return response;
+    }
+}
@@ -0,0 +1,31 @@
+package com.jdouglas9025.coinportfoliotracker.snapshot;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Replaces files on disk so that a crash or power loss leaves either the old file or the complete new one
+// A rename alone is not enough: the file system may commit the rename before the new file's data, leaving an empty or
+// truncated file after a power loss, so the data is forced to disk first
+public class DurableFiles {
+    private DurableFiles() {
+    }
+
+    // Forces the fully written temporary file to disk, renames it over the target, then forces the directory entry
+    public static void replace(Path temporary, Path target) throws IOException {
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // Directories cannot be opened on every platform (e.g., Windows) -- the rename is still atomic there
+        try (FileChannel directory = FileChannel.open(target.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.jdouglas9025.coinportfoliotracker.snapshot;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Precompiled subset of an entity's public fields -- built once per distinct 'fields' request and reused for every item
+// Fields are written in declaration order (the order Jackson uses), so a projection of every field matches the full response
+public class EntityProjection {
+    // Field names joined in write order (identical for the same set of fields in any order)
+    private final String key;
+    private final Field[] fields;
+
+    private EntityProjection(List<Field> fields) {
+        List<String> names = new ArrayList<>();
+        for (Field field : fields) {
+            names.add(field.getName());
+        }
+
+        this.key = String.join(",", names);
+        this.fields = fields.toArray(new Field[0]);
+    }
+
+    // Returns null if any name is not a public field of the type
+    public static EntityProjection compile(Class<?> type, Collection<String> names) {
+        List<Field> selected = new ArrayList<>();
+        int matched = 0;
+
+        for (Field field : type.getFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+
+            if (names.contains(field.getName())) {
+                selected.add(field);
+                matched++;
+            }
+        }
+
+        return matched == names.size() ? new EntityProjection(selected) : null;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    // Writes the item's projected fields as a JSON object (generator must have the ObjectMapper as its codec)
+    public void write(Object item, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+
+        try {
+            for (Field field : fields) {
+                generator.writeFieldName(field.getName());
+                generator.writeObject(field.get(item));
+            }
+        } catch (IllegalAccessException e) {
+            // Only public fields are selected
+            throw new IllegalStateException(e);
+        }
+
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,31 @@
+package com.jdouglas9025.coinportfoliotracker.snapshot;
+
+// Encoded output of a list dataset for one projection: each item on its own (for pagination) and the full response
+public class ProjectedList {
+    private final byte[][] encodedItems;
+    private final ResponseSnapshot response;
+
+    public ProjectedList(byte[][] encodedItems, ResponseSnapshot response) {
+        this.encodedItems = encodedItems;
+        this.response = response;
+    }
+
+    public byte[][] getEncodedItems() {
+        return encodedItems;
+    }
+
+    public ResponseSnapshot getResponse() {
+        return response;
+    }
+
+    // Approximate retained size in bytes (used to bound the projection cache)
+    public int getWeight() {
+        int weight = response.getBody().length + response.getGzip().length;
+
+        for (byte[] item : encodedItems) {
+            weight += item.length;
+        }
+
+        return weight;
+    }
+}
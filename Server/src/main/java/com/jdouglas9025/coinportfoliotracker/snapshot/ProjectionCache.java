@@ -0,0 +1,100 @@
+package com.jdouglas9025.coinportfoliotracker.snapshot;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jdouglas9025.coinportfoliotracker.market.MarketColumnStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Compiled projections and their encoded output for 'fields' requests
+// Output is keyed by the source snapshot's entity tag, so each projection is encoded at most once per dataset version
+// and older versions simply age out of the bounded cache
+@Component
+public class ProjectionCache {
+    // Distinct projections kept compiled
+    private final long maxProjections = 256;
+    // Upper bound on the bytes held by cached output across all datasets
+    private final long maxOutputBytes = 64L * 1024 * 1024;
+
+    private final SnapshotEncoder snapshotEncoder;
+
+    // Key: type name + sorted field names
+    private final Cache<String, EntityProjection> entityProjections = Caffeine.newBuilder()
+            .maximumSize(maxProjections)
+            .build();
+    // Key: sorted field names
+    private final Cache<String, MarketColumnStore.Projection> marketProjections = Caffeine.newBuilder()
+            .maximumSize(maxProjections)
+            .build();
+    // Key: source entity tag + projection key
+    private final Cache<String, ProjectedList> outputs = Caffeine.newBuilder()
+            .maximumWeight(maxOutputBytes)
+            .weigher((String key, ProjectedList value) -> value.getWeight())
+            .build();
+
+    @Autowired
+    public ProjectionCache(SnapshotEncoder snapshotEncoder) {
+        this.snapshotEncoder = snapshotEncoder;
+    }
+
+    // Returns null if any field is not a public field of the type
+    public EntityProjection getEntityProjection(Class<?> type, Set<String> fields) {
+        String key = type.getName() + ":" + String.join(",", new TreeSet<>(fields));
+        EntityProjection projection = entityProjections.getIfPresent(key);
+
+        if (projection == null) {
+            projection = EntityProjection.compile(type, fields);
+
+            // Unknown fields are not cached so bad requests cannot fill the cache
+            if (projection != null) {
+                entityProjections.put(key, projection);
+            }
+        }
+
+        return projection;
+    }
+
+    // Returns null if any field is not a coin field
+    public MarketColumnStore.Projection getMarketProjection(Set<String> fields) {
+        String key = String.join(",", new TreeSet<>(fields));
+        MarketColumnStore.Projection projection = marketProjections.getIfPresent(key);
+
+        if (projection == null) {
+            projection = MarketColumnStore.project(fields);
+
+            if (projection != null) {
+                marketProjections.put(key, projection);
+            }
+        }
+
+        return projection;
+    }
+
+    // Projected coins from the store the source response was encoded from
+    public ProjectedList getMarket(ResponseSnapshot source, MarketColumnStore coins, MarketColumnStore.Projection projection) {
+        return outputs.get(source.getBodyETag() + ":" + projection.getKey(), key -> {
+            byte[][] encoded = snapshotEncoder.encodeEach(coins, projection);
+
+            return new ProjectedList(encoded, encodeList(source, encoded));
+        });
+    }
+
+    // Projected items from the list the source response was encoded from
+    public ProjectedList getList(ResponseSnapshot source, List<?> items, EntityProjection projection) {
+        return outputs.get(source.getBodyETag() + ":" + projection.getKey(), key -> {
+            byte[][] encoded = snapshotEncoder.encodeEach(items, projection);
+
+            return new ProjectedList(encoded, encodeList(source, encoded));
+        });
+    }
+
+    private ResponseSnapshot encodeList(ResponseSnapshot source, byte[][] encoded) {
+        byte[] prefix = snapshotEncoder.encodeListPrefix(source.getLastUpdated());
+
+        return snapshotEncoder.encodeList(source.getLastUpdated(), prefix, encoded, source.getNextRefresh(), source.getVersion());
+    }
+}
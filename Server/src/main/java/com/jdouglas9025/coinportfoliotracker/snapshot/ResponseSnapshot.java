@@ -0,0 +1,113 @@
+package com.jdouglas9025.coinportfoliotracker.snapshot;
+
+import java.time.Instant;
+
+// Immutable, pre-encoded response body for a dataset
+// Built once per refresh so each request only has to copy bytes rather than re-serialize the data
+public class ResponseSnapshot {
+    public static final String jsonContentType = "application/json";
+
+    private final String lastUpdated;
+    // Media type of the body (JSON unless the snapshot is an alternate format such as binary market data)
+    private final String contentType;
+    // Encoded body
+    private final byte[] body;
+    // Gzip compressed copy of the body
+    private final byte[] gzip;
+    // Strong entity tags (quoted) for each representation -- derived from last updated time and a hash of the body
+    private final String bodyETag;
+    private final String gzipETag;
+    // Time of the next scheduled refresh for this dataset (null if unknown)
+    private final Instant nextRefresh;
+    // Version of the data for versioned datasets (0 if not versioned)
+    private final long version;
+
+    public ResponseSnapshot(String lastUpdated, byte[] json, byte[] gzip, String eTag, Instant nextRefresh, long version) {
+        this(lastUpdated, jsonContentType, json, gzip, eTag, nextRefresh, version);
+    }
+
+    public ResponseSnapshot(String lastUpdated, String contentType, byte[] body, byte[] gzip, String eTag, Instant nextRefresh, long version) {
+        this.lastUpdated = lastUpdated;
+        this.contentType = contentType;
+        this.body = body;
+        this.gzip = gzip;
+        this.bodyETag = "\"" + eTag + "\"";
+        // Gzip bytes differ from the uncompressed bytes, so the representation needs its own strong tag
+        this.gzipETag = "\"" + eTag + "-gzip\"";
+        this.nextRefresh = nextRefresh;
+        this.version = version;
+    }
+
+    // Checks whether an If-None-Match header value matches the representation served for this request
+    // The gzip and identity bodies are different entities, so a client holding one must not get a 304 for the other
+    public boolean matches(String ifNoneMatch, boolean gzip) {
+        return matches(ifNoneMatch, gzip ? gzipETag : bodyETag);
+    }
+
+    // Checks whether an If-None-Match header value (a list of tags, or '*') matches the entity tag
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+
+            // Weak comparison is used for If-None-Match, so ignore any weak prefix
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+
+            if (trimmed.equals("*") || trimmed.equals(eTag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public String getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    public String getBodyETag() {
+        return bodyETag;
+    }
+
+    public String getGzipETag() {
+        return gzipETag;
+    }
+
+    public Instant getNextRefresh() {
+        return nextRefresh;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseSnapshot{" +
+                "lastUpdated=" + lastUpdated +
+                ", contentType=" + contentType +
+                ", bodyLength=" + body.length +
+                ", gzipLength=" + gzip.length +
+                ", eTag=" + bodyETag +
+                ", nextRefresh=" + nextRefresh +
+                ", version=" + version +
+                '}';
+    }
+}
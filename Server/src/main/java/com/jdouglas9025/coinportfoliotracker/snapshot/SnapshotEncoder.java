@@ -0,0 +1,263 @@
+package com.jdouglas9025.coinportfoliotracker.snapshot;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jdouglas9025.coinportfoliotracker.controller.Response;
+import com.jdouglas9025.coinportfoliotracker.market.MarketColumnStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+// Encodes dataset responses into immutable snapshots (JSON + gzip) at refresh time
+// Uses the same ObjectMapper as Spring MVC so the bytes match what the controller previously produced
+@Component
+public class SnapshotEncoder {
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public SnapshotEncoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public ResponseSnapshot encode(String lastUpdated, Object data, Instant nextRefresh) {
+        return encode(lastUpdated, data, nextRefresh, 0);
+    }
+
+    public ResponseSnapshot encode(String lastUpdated, Object data, Instant nextRefresh, long version) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new Response<>(lastUpdated, data));
+
+            return new ResponseSnapshot(lastUpdated, json, gzip(json), getETag(lastUpdated, json), nextRefresh, version);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Encodes each item of a list separately so responses can be assembled from any subset of them
+    public byte[][] encodeEach(List<?> items) {
+        try {
+            byte[][] result = new byte[items.size()][];
+
+            for (int i = 0; i < items.size(); i++) {
+                result[i] = objectMapper.writeValueAsBytes(items.get(i));
+            }
+
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Encodes each coin straight from the column store (no entity objects are created)
+    public byte[][] encodeEach(MarketColumnStore coins) {
+        return encodeEach(coins, null);
+    }
+
+    // Same as above with only the projection's fields (null = every field)
+    public byte[][] encodeEach(MarketColumnStore coins, MarketColumnStore.Projection projection) {
+        try {
+            byte[][] result = new byte[coins.size()][];
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            for (int i = 0; i < coins.size(); i++) {
+                output.reset();
+
+                try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                    if (projection == null) {
+                        coins.writeCoin(i, generator);
+                    } else {
+                        coins.writeCoin(i, generator, projection);
+                    }
+                }
+
+                result[i] = output.toByteArray();
+            }
+
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Encodes only the projection's fields of each item
+    public byte[][] encodeEach(List<?> items, EntityProjection projection) {
+        try {
+            byte[][] result = new byte[items.size()][];
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            for (int i = 0; i < items.size(); i++) {
+                output.reset();
+
+                try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                    projection.write(items.get(i), generator);
+                }
+
+                result[i] = output.toByteArray();
+            }
+
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Encodes market data in the compact binary format (see MarketColumnStore.writeBinary) as an alternate representation
+    public ResponseSnapshot encodeBinary(String lastUpdated, MarketColumnStore coins, Instant nextRefresh, long version) {
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            try (DataOutputStream data = new DataOutputStream(output)) {
+                coins.writeBinary(lastUpdated, version, data);
+            }
+
+            byte[] body = output.toByteArray();
+
+            return new ResponseSnapshot(lastUpdated, MarketColumnStore.binaryContentType, body, gzip(body),
+                    getETag(lastUpdated, body), nextRefresh, version);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Start of a list response body up to the opening bracket of the data array
+    // Matches the field order Jackson uses for Response ('lastUpdated', then 'data')
+    public byte[] encodeListPrefix(String lastUpdated) {
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            output.writeBytes("{\"lastUpdated\":".getBytes(StandardCharsets.UTF_8));
+            output.writeBytes(objectMapper.writeValueAsBytes(lastUpdated));
+            output.writeBytes(",\"data\":[".getBytes(StandardCharsets.UTF_8));
+
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Assembles a list response snapshot from items already encoded with encodeEach
+    public ResponseSnapshot encodeList(String lastUpdated, byte[] prefix, byte[][] encodedItems, Instant nextRefresh, long version) {
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            output.writeBytes(prefix);
+
+            for (int i = 0; i < encodedItems.length; i++) {
+                if (i > 0) {
+                    output.write(',');
+                }
+
+                output.writeBytes(encodedItems[i]);
+            }
+
+            output.write(']');
+            output.write('}');
+
+            byte[] json = output.toByteArray();
+
+            return new ResponseSnapshot(lastUpdated, json, gzip(json), getETag(lastUpdated, json), nextRefresh, version);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Combines already encoded responses into one JSON object (key: part name, value: that part's response body)
+    // Each part keeps its own 'lastUpdated', and the entity tag is derived from the parts' tags, so it changes when any part does
+    // The response can be cached until the soonest refresh of any part
+    public ResponseSnapshot encodeComposite(Map<String, ResponseSnapshot> parts, long version) {
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            StringBuilder tags = new StringBuilder();
+            Instant nextRefresh = null;
+            boolean scheduled = true;
+            boolean first = true;
+
+            output.write('{');
+
+            for (Map.Entry<String, ResponseSnapshot> entry : parts.entrySet()) {
+                ResponseSnapshot part = entry.getValue();
+
+                if (!first) {
+                    output.write(',');
+                }
+                first = false;
+
+                output.writeBytes(objectMapper.writeValueAsBytes(entry.getKey()));
+                output.write(':');
+                output.writeBytes(part.getBody());
+
+                tags.append(part.getBodyETag());
+
+                // A part with no scheduled refresh makes the whole response uncacheable
+                if (part.getNextRefresh() == null) {
+                    scheduled = false;
+                } else if (nextRefresh == null || part.getNextRefresh().isBefore(nextRefresh)) {
+                    nextRefresh = part.getNextRefresh();
+                }
+            }
+
+            output.write('}');
+
+            byte[] json = output.toByteArray();
+            String eTag = getETag(null, tags.toString().getBytes(StandardCharsets.UTF_8));
+
+            return new ResponseSnapshot(null, json, gzip(json), eTag, scheduled ? nextRefresh : null, version);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Builds a stable tag for a query over a dataset from a SHA-256 hash of its canonical form (the same on every instance and restart)
+    public String getQueryTag(String canonicalQuery) {
+        return getETag(null, canonicalQuery.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Gzip compresses a body built per request (e.g., a page of query results)
+    public byte[] compress(byte[] body) {
+        try {
+            return gzip(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Builds an entity tag from the last updated time and a SHA-256 hash of the encoded body
+    private String getETag(String lastUpdated, byte[] json) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            if (lastUpdated != null) {
+                digest.update(lastUpdated.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update(json);
+
+            // First 128 bits of the hash are plenty to tell versions apart
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] gzip(byte[] input) throws IOException {
+        // JSON compresses to roughly 1/5 of its size, so start the buffer there to avoid most resizing
+        ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(input.length / 4, 64));
+
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(input);
+        }
+
+        return output.toByteArray();
+    }
+}
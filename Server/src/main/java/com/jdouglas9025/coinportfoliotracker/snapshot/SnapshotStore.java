@@ -0,0 +1,171 @@
+package com.jdouglas9025.coinportfoliotracker.snapshot;
+
+import com.google.gson.Gson;
+
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+// Keeps the last published version of each dataset on disk so a restart serves it immediately rather than empty responses
+// Each dataset is one file: a small binary header (when it was saved, its lastUpdated, and its next refresh), then its data as JSON
+// Files are written to a temporary file and renamed over the old one, so a crash never leaves half a file,
+// and are memory-mapped when loaded so the data is parsed straight from the page cache
+public class SnapshotStore {
+    // 'CPTS' -- identifies snapshot files, followed by the format version
+    private static final int magic = 0x43505453;
+    private static final int formatVersion = 1;
+
+    private final Gson gson = new Gson();
+    private final Path directory;
+
+    public SnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    // nextRefresh may be null (e.g., unknown)
+    public void save(String name, String lastUpdated, Instant nextRefresh, Object data) throws IOException {
+        Files.createDirectories(directory);
+
+        Path path = getPath(name);
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (OutputStream output = Files.newOutputStream(temporary)) {
+            DataOutputStream header = new DataOutputStream(output);
+            header.writeInt(magic);
+            header.writeInt(formatVersion);
+            header.writeLong(System.currentTimeMillis());
+            header.writeLong(nextRefresh == null ? -1 : nextRefresh.toEpochMilli());
+
+            byte[] lastUpdatedBytes = (lastUpdated == null ? "" : lastUpdated).getBytes(StandardCharsets.UTF_8);
+            header.writeShort(lastUpdatedBytes.length);
+            header.write(lastUpdatedBytes);
+            header.flush();
+
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            gson.toJson(data, writer);
+            writer.flush();
+        }
+
+        DurableFiles.replace(temporary, path);
+    }
+
+    // Returns the saved dataset, or null if there is none (or the file cannot be read, e.g., from an older format)
+    public <T> PersistedSnapshot<T> load(String name, Type type) {
+        try (FileChannel channel = FileChannel.open(getPath(name), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != magic || buffer.getInt() != formatVersion) {
+                return null;
+            }
+
+            long savedAt = buffer.getLong();
+            long nextRefresh = buffer.getLong();
+
+            byte[] lastUpdated = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(lastUpdated);
+
+            T data;
+            try (Reader reader = new InputStreamReader(new ByteBufferInputStream(buffer), StandardCharsets.UTF_8)) {
+                data = gson.fromJson(reader, type);
+            }
+
+            if (data == null) {
+                return null;
+            }
+
+            return new PersistedSnapshot<>(data, lastUpdated.length == 0 ? null : new String(lastUpdated, StandardCharsets.UTF_8),
+                    Instant.ofEpochMilli(savedAt), nextRefresh == -1 ? null : Instant.ofEpochMilli(nextRefresh));
+        } catch (NoSuchFileException ignored) {
+            return null;
+        } catch (IOException | RuntimeException ignored) {
+            // Corrupt file (e.g., truncated) -- replaced on the next save
+            return null;
+        }
+    }
+
+    private Path getPath(String name) {
+        return directory.resolve(name + ".snapshot");
+    }
+
+    // Dataset as it was last published, with when it was saved and when upstream was next expected to have new data
+    public static class PersistedSnapshot<T> {
+        private final T data;
+        private final String lastUpdated;
+        private final Instant savedAt;
+        private final Instant nextRefresh;
+
+        public PersistedSnapshot(T data, String lastUpdated, Instant savedAt, Instant nextRefresh) {
+            this.data = data;
+            this.lastUpdated = lastUpdated;
+            this.savedAt = savedAt;
+            this.nextRefresh = nextRefresh;
+        }
+
+        public T getData() {
+            return data;
+        }
+
+        public String getLastUpdated() {
+            return lastUpdated;
+        }
+
+        public Instant getSavedAt() {
+            return savedAt;
+        }
+
+        public Instant getNextRefresh() {
+            return nextRefresh;
+        }
+
+        // Fresh until its next refresh time -- refreshing before then would fetch the same data again
+        public boolean isFresh() {
+            return nextRefresh != null && Instant.now().isBefore(nextRefresh);
+        }
+    }
+
+    // Reads the rest of a mapped buffer without copying it into an array first
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.jdouglas9025.coinportfoliotracker.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Tracks the steps of loading the datasets in the background after boot, and when the server is ready to serve traffic
+// The server is ready once every required step (the core datasets) has finished -- other steps are only timed
+// Times are measured from JVM start, so the breakdown includes the time Spring took to start
+@Component
+public class StartupTracker {
+    private final Logger logger = LoggerFactory.getLogger(StartupTracker.class);
+
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private final Set<String> requiredSteps = ConcurrentHashMap.newKeySet();
+    // Key: step, value: milliseconds from JVM start until the step first finished (in order of finishing)
+    private final Map<String, Long> completedSteps = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private volatile boolean ready;
+    private volatile Long readyMillis;
+
+    // Adds a step that must finish before the server is ready
+    public void require(String step) {
+        requiredSteps.add(step);
+    }
+
+    // Records that the step finished (later calls for the same step are ignored, so it can be called on every refresh)
+    public void complete(String step) {
+        if (completedSteps.containsKey(step)) {
+            return;
+        }
+
+        long elapsed = System.currentTimeMillis() - jvmStartMillis;
+        if (completedSteps.putIfAbsent(step, elapsed) != null) {
+            return;
+        }
+
+        logger.info("Startup step '{}' finished after {} ms", step, elapsed);
+
+        checkReady(elapsed);
+    }
+
+    public boolean isComplete(String step) {
+        return completedSteps.containsKey(step);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Milliseconds from JVM start until ready (null if not ready yet)
+    public Long getReadyMillis() {
+        return readyMillis;
+    }
+
+    public Map<String, Long> getCompletedSteps() {
+        synchronized (completedSteps) {
+            return new LinkedHashMap<>(completedSteps);
+        }
+    }
+
+    private synchronized void checkReady(long elapsed) {
+        if (ready || requiredSteps.isEmpty() || !completedSteps.keySet().containsAll(requiredSteps)) {
+            return;
+        }
+
+        readyMillis = elapsed;
+        ready = true;
+
+        logger.info("Ready to serve traffic after {} ms (steps: {})", elapsed, getCompletedSteps());
+    }
+}
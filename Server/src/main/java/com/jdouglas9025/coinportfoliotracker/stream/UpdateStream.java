@@ -0,0 +1,84 @@
+package com.jdouglas9025.coinportfoliotracker.stream;
+
+import com.jdouglas9025.coinportfoliotracker.snapshot.ResponseSnapshot;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+// Pushes each dataset refresh to every connected Server-Sent Events client
+// Each event is built once when ApiService publishes, and the same event object is handed to every subscriber
+// The sink is best-effort: a client that has not finished writing the previous event simply misses this one (no buffering
+// per client), so one slow connection never holds up the publisher or the other clients
+@Component
+public class UpdateStream {
+    // Event names (the SSE 'event' field)
+    public static final String marketEvent = "market";
+    public static final String globalDataEvent = "global";
+    public static final String trendingCoinsEvent = "trending";
+    public static final String newsEvent = "news";
+
+    // Comment sent to idle connections so proxies keep them open and dead clients are noticed
+    private static final String heartbeatComment = "heartbeat";
+    private static final long heartbeatInterval = 15000;
+    // How long clients wait before reconnecting after the stream drops
+    private static final Duration reconnectDelay = Duration.ofSeconds(5);
+
+    private final Sinks.Many<ServerSentEvent<String>> sink = Sinks.many().multicast().directBestEffort();
+
+    // Returns the live event stream, starting with any events a reconnecting client needs to catch up
+    public Flux<ServerSentEvent<String>> subscribe(ServerSentEvent<String> catchUp) {
+        Flux<ServerSentEvent<String>> events = sink.asFlux();
+
+        return catchUp == null ? events : Flux.concat(Flux.just(catchUp), events);
+    }
+
+    // Market data is pushed as the delta from the previous version
+    // Only market events carry an id (the version), so a reconnecting client's Last-Event-ID is the last version it applied
+    public void publishMarket(long version, ResponseSnapshot delta) {
+        emit(buildMarketEvent(version, delta));
+    }
+
+    // Other datasets are small enough to push whole
+    public void publish(String event, ResponseSnapshot response) {
+        emit(ServerSentEvent.<String>builder()
+                .event(event)
+                .data(toData(response))
+                .retry(reconnectDelay)
+                .build());
+    }
+
+    public ServerSentEvent<String> buildMarketEvent(long version, ResponseSnapshot delta) {
+        return ServerSentEvent.<String>builder()
+                .id(Long.toString(version))
+                .event(marketEvent)
+                .data(toData(delta))
+                .retry(reconnectDelay)
+                .build();
+    }
+
+    public int getSubscriberCount() {
+        return sink.currentSubscriberCount();
+    }
+
+    @Scheduled(fixedRate = heartbeatInterval)
+    public void sendHeartbeat() {
+        if (sink.currentSubscriberCount() > 0) {
+            emit(ServerSentEvent.<String>builder().comment(heartbeatComment).build());
+        }
+    }
+
+    // Refresh jobs and the heartbeat run on different threads, but the sink only accepts one emission at a time
+    private synchronized void emit(ServerSentEvent<String> event) {
+        // Fails only when nobody is subscribed, in which case there is nothing to deliver
+        sink.tryEmitNext(event);
+    }
+
+    private String toData(ResponseSnapshot response) {
+        return new String(response.getBody(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,38 @@
+package com.jdouglas9025.coinportfoliotracker.text;
+
+import java.util.Set;
+
+// Common English words that carry no meaning on their own (the list scikit-learn uses), left out when indexing text
+public class EnglishStopWords {
+    private static final Set<String> words = Set.of(
+            "a", "about", "above", "across", "after", "afterwards", "again", "against", "all", "almost", "alone", "along",
+            "already", "also", "although", "always", "am", "among", "amongst", "an", "and", "another", "any", "anyhow",
+            "anyone", "anything", "anyway", "anywhere", "are", "around", "as", "at", "be", "became", "because", "become",
+            "becomes", "becoming", "been", "before", "beforehand", "behind", "being", "below", "beside", "besides", "between",
+            "beyond", "both", "but", "by", "can", "cannot", "could", "do", "done", "down", "due", "during", "each", "eg",
+            "either", "else", "elsewhere", "enough", "etc", "even", "ever", "every", "everyone", "everything", "everywhere",
+            "except", "few", "for", "former", "formerly", "from", "further", "get", "give", "go", "had", "has", "have", "he",
+            "hence", "her", "here", "hereafter", "hereby", "herein", "hers", "herself", "him", "himself", "his", "how",
+            "however", "ie", "if", "in", "inc", "indeed", "into", "is", "it", "its", "itself", "keep", "last", "latter",
+            "latterly", "least", "less", "ltd", "made", "many", "may", "me", "meanwhile", "might", "more", "moreover", "most",
+            "mostly", "much", "must", "my", "myself", "namely", "neither", "never", "nevertheless", "next", "no", "nobody",
+            "none", "noone", "nor", "not", "nothing", "now", "nowhere", "of", "off", "often", "on", "once", "one", "only",
+            "onto", "or", "other", "others", "otherwise", "our", "ours", "ourselves", "out", "over", "own", "per", "perhaps",
+            "please", "put", "rather", "re", "same", "see", "seem", "seemed", "seeming", "seems", "several", "she", "should",
+            "since", "so", "some", "somehow", "someone", "something", "sometime", "sometimes", "somewhere", "still", "such",
+            "than", "that", "the", "their", "them", "themselves", "then", "thence", "there", "thereafter", "thereby",
+            "therefore", "therein", "thereupon", "these", "they", "this", "those", "though", "through", "throughout", "thru",
+            "thus", "to", "together", "too", "toward", "towards", "under", "until", "up", "upon", "us", "very", "via", "was",
+            "we", "well", "were", "what", "whatever", "when", "whence", "whenever", "where", "whereafter", "whereas", "whereby",
+            "wherein", "whereupon", "wherever", "whether", "which", "while", "whither", "who", "whoever", "whole", "whom",
+            "whose", "why", "will", "with", "within", "without", "would", "yet", "you", "your", "yours", "yourself", "yourselves"
+    );
+
+    private EnglishStopWords() {
+    }
+
+    // Word must already be lowercase
+    public static boolean contains(String word) {
+        return words.contains(word);
+    }
+}
@@ -0,0 +1,179 @@
+package com.jdouglas9025.coinportfoliotracker.text;
+
+// Reduces English words to a common stem so different forms match (e.g., 'surges', 'surged', and 'surging' -> 'surg')
+// Implements step 1 of the Porter stemmer (plurals, -ed/-ing, and a final 'y') plus its final 'e' removal, which covers the
+// forms seen in headlines without the over-stemming of the other steps
+public class Stemmer {
+    private Stemmer() {
+    }
+
+    // Word must already be lowercase
+    public static String stem(String word) {
+        if (word.length() <= 2) {
+            return word;
+        }
+
+        StringBuilder builder = new StringBuilder(word);
+
+        step1a(builder);
+        step1b(builder);
+        step1c(builder);
+        step5a(builder);
+
+        return builder.toString();
+    }
+
+    // Plurals: 'sses' -> 'ss', 'ies' -> 'i', 's' -> '' (but 'ss' stays)
+    private static void step1a(StringBuilder word) {
+        if (endsWith(word, "sses") || endsWith(word, "ies")) {
+            word.setLength(word.length() - 2);
+        } else if (!endsWith(word, "ss") && endsWith(word, "s")) {
+            word.setLength(word.length() - 1);
+        }
+    }
+
+    // Past tense and progressive: 'eed' -> 'ee', then '-ed'/'-ing' removed if a vowel remains
+    private static void step1b(StringBuilder word) {
+        if (endsWith(word, "eed")) {
+            if (measure(word, word.length() - 3) > 0) {
+                word.setLength(word.length() - 1);
+            }
+
+            return;
+        }
+
+        int suffix;
+        if (endsWith(word, "ed")) {
+            suffix = 2;
+        } else if (endsWith(word, "ing")) {
+            suffix = 3;
+        } else {
+            return;
+        }
+
+        if (!containsVowel(word, word.length() - suffix)) {
+            return;
+        }
+
+        word.setLength(word.length() - suffix);
+
+        // Restore endings the suffix removal broke (e.g., 'hoped' -> 'hop' -> 'hope', 'hopping' -> 'hopp' -> 'hop')
+        if (endsWith(word, "at") || endsWith(word, "bl") || endsWith(word, "iz")) {
+            word.append('e');
+        } else if (endsWithDoubleConsonant(word)) {
+            char last = word.charAt(word.length() - 1);
+
+            if (last != 'l' && last != 's' && last != 'z') {
+                word.setLength(word.length() - 1);
+            }
+        } else if (measure(word, word.length()) == 1 && endsWithConsonantVowelConsonant(word)) {
+            word.append('e');
+        }
+    }
+
+    // Final 'y' -> 'i' if the stem has a vowel (so 'rally' and 'rallies' match)
+    private static void step1c(StringBuilder word) {
+        if (endsWith(word, "y") && containsVowel(word, word.length() - 1)) {
+            word.setCharAt(word.length() - 1, 'i');
+        }
+    }
+
+    // Final 'e' removed so 'surge' matches 'surged' (kept on short consonant-vowel-consonant stems such as 'hope')
+    private static void step5a(StringBuilder word) {
+        if (!endsWith(word, "e")) {
+            return;
+        }
+
+        int length = word.length() - 1;
+        int measure = measure(word, length);
+
+        if (measure > 1) {
+            word.setLength(length);
+        } else if (measure == 1) {
+            word.setLength(length);
+
+            if (endsWithConsonantVowelConsonant(word)) {
+                word.append('e');
+            }
+        }
+    }
+
+    private static boolean endsWith(StringBuilder word, String suffix) {
+        int start = word.length() - suffix.length();
+
+        return start >= 0 && word.indexOf(suffix, start) == start;
+    }
+
+    // Vowels are a, e, i, o, u, and 'y' after a consonant
+    private static boolean isConsonant(StringBuilder word, int index) {
+        switch (word.charAt(index)) {
+            case 'a', 'e', 'i', 'o', 'u' -> {
+                return false;
+            }
+            case 'y' -> {
+                return index == 0 || !isConsonant(word, index - 1);
+            }
+            default -> {
+                return true;
+            }
+        }
+    }
+
+    // Number of vowel-consonant sequences in the first 'length' letters (Porter's m)
+    private static int measure(StringBuilder word, int length) {
+        int result = 0;
+        int index = 0;
+
+        // Skip leading consonants
+        while (index < length && isConsonant(word, index)) {
+            index++;
+        }
+
+        while (index < length) {
+            while (index < length && !isConsonant(word, index)) {
+                index++;
+            }
+
+            if (index >= length) {
+                break;
+            }
+
+            while (index < length && isConsonant(word, index)) {
+                index++;
+            }
+
+            result++;
+        }
+
+        return result;
+    }
+
+    private static boolean containsVowel(StringBuilder word, int length) {
+        for (int i = 0; i < length; i++) {
+            if (!isConsonant(word, i)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean endsWithDoubleConsonant(StringBuilder word) {
+        int length = word.length();
+
+        return length >= 2 && word.charAt(length - 1) == word.charAt(length - 2) && isConsonant(word, length - 1);
+    }
+
+    // Consonant-vowel-consonant where the last consonant is not w, x, or y (e.g., 'hop', but not 'snow')
+    private static boolean endsWithConsonantVowelConsonant(StringBuilder word) {
+        int length = word.length();
+
+        if (length < 3 || !isConsonant(word, length - 1) || isConsonant(word, length - 2) || !isConsonant(word, length - 3)) {
+            return false;
+        }
+
+        char last = word.charAt(length - 1);
+
+        return last != 'w' && last != 'x' && last != 'y';
+    }
+}
@@ -0,0 +1,65 @@
+package com.jdouglas9025.coinportfoliotracker.upstream;
+
+import java.time.Duration;
+
+// Stops calling an upstream that keeps failing, so refreshes fail fast instead of each waiting out its timeouts and retries
+// Closed: calls go through, and failureThreshold failures in a row open the breaker
+// Open: calls are refused until openDuration has passed
+// Half-open: a single trial call goes through -- success closes the breaker, failure opens it again
+public class CircuitBreaker {
+    private enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    // Whether a call may be made now (moving to half-open, and letting the one trial call through, once the open time is over)
+    public synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            default:
+                // In half-open, the trial call is already in flight (another is allowed if it never reported back, e.g., was cancelled)
+                if (System.nanoTime() - openedAt >= openDuration.toNanos()) {
+                    state = State.HALF_OPEN;
+                    openedAt = System.nanoTime();
+
+                    return true;
+                }
+
+                return false;
+        }
+    }
+
+    // Upstream answered (any response that is not a server error)
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    // Upstream failed (timed out, connection error, or server error)
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    public synchronized boolean isOpen() {
+        return state != State.CLOSED;
+    }
+}
@@ -0,0 +1,64 @@
+package com.jdouglas9025.coinportfoliotracker.upstream;
+
+import java.time.Duration;
+
+// How the upstream client calls one endpoint: how long a call may take, how failed calls are retried, and whether
+// slow calls are hedged or responses cached
+public class EndpointPolicy {
+    // Time allowed for a whole call (connecting, waiting, and reading the body)
+    private final Duration timeout;
+    // Calls made at most (1 = no retries)
+    private final int maxAttempts;
+    // Retries wait a random time up to backoffBase * 2^(attempt - 1), capped at maxRetryWait
+    private final Duration backoffBase;
+    // Longest wait before a retry -- a Retry-After longer than this is returned to the caller rather than waited out
+    private final Duration maxRetryWait;
+    // A second identical call is sent if the first has not answered by then, and the first answer wins (null = never hedged)
+    private final Duration hedgeDelay;
+    // Whether responses are kept in the on-disk cache and revalidated with conditional requests
+    private final boolean cacheable;
+
+    public EndpointPolicy(Duration timeout, int maxAttempts, Duration backoffBase, Duration maxRetryWait, Duration hedgeDelay,
+                          boolean cacheable) {
+        this.timeout = timeout;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffBase = backoffBase;
+        this.maxRetryWait = maxRetryWait;
+        this.hedgeDelay = hedgeDelay;
+        this.cacheable = cacheable;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public Duration getBackoffBase() {
+        return backoffBase;
+    }
+
+    public Duration getMaxRetryWait() {
+        return maxRetryWait;
+    }
+
+    public Duration getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    // Longest a single get can take: every attempt timing out, with the longest wait before each retry
+    public Duration getMaxDuration() {
+        return timeout.multipliedBy(maxAttempts).plus(maxRetryWait.multipliedBy(maxAttempts - 1));
+    }
+
+    // Calls a single get may send at most (every attempt, each hedged with a second call if the endpoint is hedged)
+    public int getMaxCalls() {
+        return hedgeDelay == null ? maxAttempts : maxAttempts * 2;
+    }
+}
@@ -0,0 +1,224 @@
+package com.jdouglas9025.coinportfoliotracker.upstream;
+
+import com.jdouglas9025.coinportfoliotracker.snapshot.DurableFiles;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Small on-disk cache of upstream responses, so a restart or retry within a response's max-age does not call upstream again,
+// and later calls can be conditional (If-None-Match / If-Modified-Since) and answered with a bodiless 304
+// Each response is one file named by the hash of its URL: a small binary header (URL, validators, expiry), then the body
+// up to the end of the file
+// Bodies are streamed in and out of the files, so a large response is never held in memory
+// Files are written to a temporary file and renamed over the old one, and the least recently written are removed once
+// the cache grows past its size limit
+public class ResponseCache {
+    // 'CPTR' -- identifies response cache files, followed by the format version
+    private static final int magic = 0x43505452;
+    private static final int formatVersion = 2;
+
+    private final Path directory;
+    private final long maxBytes;
+
+    // Key: file name, value: file size (least recently written first)
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>();
+    private long totalBytes;
+
+    private ResponseCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    // Indexes the files already in the directory (a missing directory starts empty)
+    public static ResponseCache open(Path directory, long maxBytes) {
+        ResponseCache cache = new ResponseCache(directory, maxBytes);
+        List<Path> files = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.response")) {
+            stream.forEach(files::add);
+        } catch (IOException ignored) {
+        }
+
+        files.sort(Comparator.comparingLong(ResponseCache::getModifiedMillis));
+
+        for (Path file : files) {
+            try {
+                cache.add(file.getFileName().toString(), Files.size(file));
+            } catch (IOException ignored) {
+            }
+        }
+
+        return cache;
+    }
+
+    // Returns the validators and expiry of the cached response for the URL (without its body), or null if there is none
+    // (or the file cannot be read)
+    public CachedResponse get(String url) {
+        try (InputStream input = Files.newInputStream(getPath(url))) {
+            return readHeader(new DataInputStream(input), url);
+        } catch (NoSuchFileException ignored) {
+            return null;
+        } catch (IOException | RuntimeException ignored) {
+            // Corrupt file (e.g., truncated) -- replaced on the next put
+            return null;
+        }
+    }
+
+    // Opens the cached body for the URL, positioned after the header (the caller closes it)
+    // Throws NoSuchFileException if the response is not cached (e.g., removed to make room since it was written)
+    public InputStream openBody(String url) throws IOException {
+        Path path = getPath(url);
+        InputStream input = Files.newInputStream(path);
+
+        try {
+            if (readHeader(new DataInputStream(input), url) == null) {
+                throw new NoSuchFileException(path.toString());
+            }
+
+            return input;
+        } catch (IOException | RuntimeException e) {
+            input.close();
+
+            throw e;
+        }
+    }
+
+    // Copies the body into the cache as it is read (the caller closes it)
+    // etag and lastModified may be null; expiresAt is in epoch milliseconds (the response is fresh until then)
+    public void put(String url, InputStream body, String etag, String lastModified, long expiresAt) throws IOException {
+        Files.createDirectories(directory);
+
+        Path path = getPath(url);
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (OutputStream output = Files.newOutputStream(temporary)) {
+            DataOutputStream data = new DataOutputStream(output);
+            data.writeInt(magic);
+            data.writeInt(formatVersion);
+            data.writeUTF(url);
+            data.writeUTF(etag == null ? "" : etag);
+            data.writeUTF(lastModified == null ? "" : lastModified);
+            data.writeLong(expiresAt);
+            body.transferTo(data);
+            data.flush();
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+
+            throw e;
+        }
+
+        DurableFiles.replace(temporary, path);
+
+        for (String evicted : add(path.getFileName().toString(), Files.size(path))) {
+            try {
+                Files.deleteIfExists(directory.resolve(evicted));
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // Records a written file and returns the files to remove to get back under the size limit (never the file just written)
+    private synchronized List<String> add(String name, long size) {
+        Long previous = entries.remove(name);
+        if (previous != null) {
+            totalBytes -= previous;
+        }
+
+        entries.put(name, size);
+        totalBytes += size;
+
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+
+        while (totalBytes > maxBytes && entries.size() > 1) {
+            Map.Entry<String, Long> oldest = iterator.next();
+
+            evicted.add(oldest.getKey());
+            totalBytes -= oldest.getValue();
+            iterator.remove();
+        }
+
+        return evicted;
+    }
+
+    // Reads the header of a cache file, or returns null if the file is from another format version or another URL
+    private static CachedResponse readHeader(DataInputStream data, String url) throws IOException {
+        if (data.readInt() != magic || data.readInt() != formatVersion) {
+            return null;
+        }
+
+        String cachedUrl = data.readUTF();
+        String etag = data.readUTF();
+        String lastModified = data.readUTF();
+        long expiresAt = data.readLong();
+
+        // Guards against hash collisions
+        if (!cachedUrl.equals(url)) {
+            return null;
+        }
+
+        return new CachedResponse(etag.isEmpty() ? null : etag, lastModified.isEmpty() ? null : lastModified, expiresAt);
+    }
+
+    private Path getPath(String url) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+
+            return directory.resolve(HexFormat.of().formatHex(hash) + ".response");
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long getModifiedMillis(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException ignored) {
+            return 0;
+        }
+    }
+
+    // Validators to revalidate a cached response, and how long it is fresh (the body is read with openBody)
+    public static class CachedResponse {
+        private final String etag;
+        private final String lastModified;
+        private final long expiresAt;
+
+        public CachedResponse(String etag, String lastModified, long expiresAt) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        // Fresh until its max-age runs out -- upstream would return the same data until then
+        public boolean isFresh() {
+            return System.currentTimeMillis() < expiresAt;
+        }
+    }
+}
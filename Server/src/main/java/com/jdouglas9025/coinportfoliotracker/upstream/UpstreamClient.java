@@ -0,0 +1,375 @@
+package com.jdouglas9025.coinportfoliotracker.upstream;
+
+import com.jdouglas9025.coinportfoliotracker.scheduler.ApiCallBudget;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+// Makes GET calls to one upstream API (e.g., CoinGecko) for the refresh jobs
+// Every call is bounded by its endpoint's timeout; timeouts, connection errors, and retryable statuses (e.g., 429, 503) are
+// retried with jittered exponential backoff, waiting at least as long as upstream's Retry-After
+// A circuit breaker shared by all endpoints stops calls while upstream keeps failing, and cacheable endpoints are served from
+// the response cache while fresh, then revalidated with conditional requests
+// Bodies are streamed rather than buffered -- a cacheable body is copied into the response cache as it arrives and read back
+// from there, so neither a large response nor a hedged duplicate is held in memory
+// The base URL is configurable, so the client can be pointed at a local stub server
+// Calls block, so they are meant for refresh jobs on virtual threads
+public class UpstreamClient {
+    private final Logger logger = LoggerFactory.getLogger(UpstreamClient.class);
+
+    // Statuses worth retrying (the request itself was fine)
+    private static final Set<Integer> retryableStatuses = Set.of(408, 429, 500, 502, 503, 504);
+
+    private final HttpClient client;
+    private final String baseUrl;
+    // Sent with every call (e.g., the API key)
+    private final Map<String, String> headers;
+    private final CircuitBreaker circuitBreaker;
+    // Null if responses are not cached
+    private final ResponseCache responseCache;
+    // Every request sent is recorded, including retries and hedged calls (null if calls are not metered)
+    private final ApiCallBudget budget;
+
+    public UpstreamClient(HttpClient client, String baseUrl, Map<String, String> headers, CircuitBreaker circuitBreaker,
+                          ResponseCache responseCache, ApiCallBudget budget) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.headers = headers;
+        this.circuitBreaker = circuitBreaker;
+        this.responseCache = responseCache;
+        this.budget = budget;
+    }
+
+    // Calls the endpoint (path relative to the base URL, including the query) under its policy
+    // Returns the first successful response, or the last response once retries run out or upstream asks to wait longer than
+    // the policy allows (e.g., a 429 with a long Retry-After)
+    // Throws UpstreamException if no attempt got a response or the circuit breaker is open
+    public UpstreamResponse get(String path, EndpointPolicy policy) throws IOException, InterruptedException {
+        String url = baseUrl + path;
+        boolean cacheable = policy.isCacheable() && responseCache != null;
+        ResponseCache.CachedResponse cached = cacheable ? responseCache.get(url) : null;
+
+        // Upstream would return the same data, so skip the call
+        if (cached != null && cached.isFresh()) {
+            try {
+                return new UpstreamResponse(200, responseCache.openBody(url), null, true);
+            } catch (IOException ignored) {
+                // Removed since (e.g., to make room) -- call upstream unconditionally
+                cached = null;
+            }
+        }
+
+        HttpRequest request = buildRequest(url, policy, cached);
+
+        UpstreamResponse last = null;
+        IOException lastError = null;
+
+        for (int attempt = 1; attempt <= policy.getMaxAttempts(); attempt++) {
+            if (!circuitBreaker.allowRequest()) {
+                throw new UpstreamException("Circuit breaker open, skipped call to " + path, lastError);
+            }
+
+            Duration wait = getBackoff(policy, attempt);
+
+            try {
+                HttpResponse<InputStream> response = send(request, policy);
+                int status = response.statusCode();
+
+                // Only server errors count against upstream's health (e.g., a 404 or 429 means it is up)
+                if (status >= 500) {
+                    circuitBreaker.recordFailure();
+                } else {
+                    circuitBreaker.recordSuccess();
+                }
+
+                // Cached body is still current
+                if (status == 304 && cached != null) {
+                    response.body().close();
+
+                    InputStream body = revalidate(url, response.headers(), cached);
+                    if (body != null) {
+                        return new UpstreamResponse(200, body, null, true);
+                    }
+
+                    // Removed since the request was sent -- ask again unconditionally (not counted as an attempt)
+                    cached = null;
+                    request = buildRequest(url, policy, null);
+                    attempt--;
+
+                    continue;
+                }
+
+                Duration retryAfter = getRetryAfter(response.headers());
+
+                if (status >= 200 && status < 300) {
+                    InputStream body = cacheable ? store(url, response.body(), response.headers(), null) : null;
+
+                    return new UpstreamResponse(status, body == null ? response.body() : body, retryAfter, false);
+                }
+
+                // Error bodies are never read, so release the connection right away
+                response.body().close();
+                last = new UpstreamResponse(status, InputStream.nullInputStream(), retryAfter, false);
+
+                if (!retryableStatuses.contains(status) || (retryAfter != null && retryAfter.compareTo(policy.getMaxRetryWait()) > 0)) {
+                    return last;
+                }
+
+                if (retryAfter != null && retryAfter.compareTo(wait) > 0) {
+                    wait = retryAfter;
+                }
+
+                logger.warn("Call to {} returned {} (attempt {} of {})", path, status, attempt, policy.getMaxAttempts());
+            } catch (IOException e) {
+                circuitBreaker.recordFailure();
+
+                last = null;
+                lastError = e;
+
+                logger.warn("Call to {} failed (attempt {} of {}): {}", path, attempt, policy.getMaxAttempts(), e.toString());
+            }
+
+            if (attempt < policy.getMaxAttempts()) {
+                Thread.sleep(wait);
+            }
+        }
+
+        if (last != null) {
+            return last;
+        }
+
+        throw new UpstreamException("Call to " + path + " failed after " + policy.getMaxAttempts() + " attempts", lastError);
+    }
+
+    // Whether calls are currently being refused (e.g., so a paced job can stop rather than fail each call in turn)
+    public boolean isCircuitOpen() {
+        return circuitBreaker.isOpen();
+    }
+
+    private HttpRequest buildRequest(String url, EndpointPolicy policy, ResponseCache.CachedResponse cached) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .GET()
+                .uri(URI.create(url))
+                .timeout(policy.getTimeout());
+
+        headers.forEach(builder::setHeader);
+
+        // Ask upstream to answer with a bodiless 304 if the cached body is still current
+        if (cached != null && cached.getEtag() != null) {
+            builder.setHeader("If-None-Match", cached.getEtag());
+        }
+        if (cached != null && cached.getLastModified() != null) {
+            builder.setHeader("If-Modified-Since", cached.getLastModified());
+        }
+
+        return builder.build();
+    }
+
+    // Sends one attempt, failing it if the whole response (including the body) has not arrived within the endpoint's timeout
+    // The body is streamed, so it is closed at the deadline if still being read then (failing the read)
+    // When the endpoint is hedged and the first call is slow, a second call is raced against it and the first response wins
+    private HttpResponse<InputStream> send(HttpRequest request, EndpointPolicy policy) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + policy.getTimeout().toNanos();
+
+        CompletableFuture<HttpResponse<InputStream>> primary = sendAsync(request);
+        CompletableFuture<HttpResponse<InputStream>> hedge = null;
+        CompletableFuture<HttpResponse<InputStream>> response = primary;
+        HttpResponse<InputStream> result = null;
+
+        try {
+            Duration hedgeDelay = policy.getHedgeDelay();
+
+            if (hedgeDelay != null && hedgeDelay.compareTo(policy.getTimeout()) < 0) {
+                try {
+                    result = primary.get(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException ignored) {
+                    hedge = sendAsync(request);
+                    response = firstSuccessful(primary, hedge);
+                }
+            }
+
+            if (result == null) {
+                result = response.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+
+            closeAtDeadline(result.body(), deadline);
+
+            return result;
+        } catch (TimeoutException e) {
+            throw new HttpTimeoutException("No response within " + policy.getTimeout().toMillis() + "ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+
+            throw new IOException(e.getCause());
+        } finally {
+            // Abort whichever call is not used, or close its body if it already answered
+            discard(primary, result);
+            if (hedge != null) {
+                discard(hedge, result);
+            }
+        }
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> sendAsync(HttpRequest request) {
+        if (budget != null) {
+            budget.record(1);
+        }
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    // Cancels a call in flight (no-op once complete), and closes its body once it answers unless it is the response used
+    private static void discard(CompletableFuture<HttpResponse<InputStream>> call, HttpResponse<InputStream> used) {
+        call.cancel(true);
+        call.thenAccept(response -> {
+            if (response != used) {
+                closeQuietly(response.body());
+            }
+        });
+    }
+
+    // Bounds reading the body by the call's deadline -- closing the stream fails a read still waiting for data (no-op once read)
+    private static void closeAtDeadline(InputStream body, long deadline) {
+        CompletableFuture.delayedExecutor(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)
+                .execute(() -> closeQuietly(body));
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    // Completes with whichever call responds first, or fails once both have failed
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> first, CompletableFuture<T> second) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        BiConsumer<T, Throwable> complete = (value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else if (first.isCompletedExceptionally() && second.isCompletedExceptionally()) {
+                result.completeExceptionally(error);
+            }
+        };
+
+        first.whenComplete(complete);
+        second.whenComplete(complete);
+
+        return result;
+    }
+
+    // Waits half of backoffBase * 2^(attempt - 1) (capped at maxRetryWait) plus a random part of the other half,
+    // so retries back off quickly but clients that failed together do not retry together
+    private Duration getBackoff(EndpointPolicy policy, int attempt) {
+        long baseMillis = policy.getBackoffBase().toMillis();
+        long capMillis = Math.min(policy.getMaxRetryWait().toMillis(), baseMillis << Math.min(attempt - 1, 20));
+        long half = capMillis / 2;
+
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(capMillis - half + 1));
+    }
+
+    // Retry-After as seconds or an HTTP date (null if missing or unreadable)
+    private Duration getRetryAfter(HttpHeaders responseHeaders) {
+        String value = responseHeaders.firstValue("Retry-After").map(String::trim).orElse(null);
+
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException ignored) {
+        }
+
+        try {
+            Instant time = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            Duration wait = Duration.between(Instant.now(), time);
+
+            return wait.isNegative() ? Duration.ZERO : wait;
+        } catch (DateTimeParseException ignored) {
+            return null;
+        }
+    }
+
+    // Refreshes the validators and expiry of the cached response after a 304 and returns its body, or null if it is no longer cached
+    private InputStream revalidate(String url, HttpHeaders responseHeaders, ResponseCache.CachedResponse cached) {
+        try {
+            InputStream body = responseCache.openBody(url);
+            InputStream stored = store(url, body, responseHeaders, cached);
+
+            return stored == null ? body : stored;
+        } catch (IOException ignored) {
+        }
+
+        // The old file is only replaced once the new one is complete, so a failed rewrite still leaves the body
+        try {
+            return responseCache.openBody(url);
+        } catch (IOException ignored) {
+            return null;
+        }
+    }
+
+    // Caches a response for its max-age with its validators (a 304 keeps the old validators if it sends none), copying the
+    // body into the cache as it is read, and returns the body read back from the cache
+    // Responses marked no-store, or with neither a max-age nor a validator, are not worth caching -- returns null without
+    // reading the body
+    // The body can only be read once, so a failed copy (e.g., the connection dropped mid-body) fails the call
+    private InputStream store(String url, InputStream body, HttpHeaders responseHeaders, ResponseCache.CachedResponse previous)
+            throws IOException {
+        String cacheControl = String.join(",", responseHeaders.allValues("Cache-Control")).toLowerCase(Locale.ROOT);
+
+        if (cacheControl.contains("no-store")) {
+            return null;
+        }
+
+        long maxAgeSeconds = 0;
+        for (String directive : cacheControl.split(",")) {
+            directive = directive.trim();
+
+            if (directive.startsWith("max-age=")) {
+                try {
+                    maxAgeSeconds = Long.parseLong(directive.substring("max-age=".length()));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+
+        String etag = responseHeaders.firstValue("ETag").orElse(previous == null ? null : previous.getEtag());
+        String lastModified = responseHeaders.firstValue("Last-Modified").orElse(previous == null ? null : previous.getLastModified());
+
+        if (etag == null && lastModified == null && maxAgeSeconds <= 0) {
+            return null;
+        }
+
+        try (body) {
+            responseCache.put(url, body, etag, lastModified, System.currentTimeMillis() + maxAgeSeconds * 1000);
+        }
+
+        return responseCache.openBody(url);
+    }
+}
@@ -0,0 +1,16 @@
+package com.jdouglas9025.coinportfoliotracker.upstream;
+
+import java.io.IOException;
+
+// Thrown when an upstream call gets no response: every attempt failed (e.g., timed out), or the circuit breaker is open
+public class UpstreamException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public UpstreamException(String message) {
+        super(message);
+    }
+
+    public UpstreamException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
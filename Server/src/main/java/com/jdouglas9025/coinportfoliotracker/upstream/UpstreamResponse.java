@@ -0,0 +1,42 @@
+package com.jdouglas9025.coinportfoliotracker.upstream;
+
+import java.io.InputStream;
+import java.time.Duration;
+
+// Response to an upstream call, from the network or the response cache
+// The body of a successful response is streamed (read it once and close it); unsuccessful responses have an empty body
+public class UpstreamResponse {
+    private final int statusCode;
+    private final InputStream body;
+    // How long upstream asked callers to wait before the next call (null if not sent)
+    private final Duration retryAfter;
+    // Whether the body came from the response cache (still fresh, or revalidated by a 304)
+    private final boolean cached;
+
+    public UpstreamResponse(int statusCode, InputStream body, Duration retryAfter, boolean cached) {
+        this.statusCode = statusCode;
+        this.body = body;
+        this.retryAfter = retryAfter;
+        this.cached = cached;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isSuccessful() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    public InputStream getBody() {
+        return body;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+}